@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.benchmark;
+
+import io.jrb.labs.docasm.fixture.DocumentFixtures;
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.model.DocumentAggregate;
+import io.jrb.labs.docasm.model.EntityType;
+import io.jrb.labs.docasm.repository.DocumentRepository;
+import io.jrb.labs.docasm.repository.DocumentSectionRepository;
+import io.jrb.labs.docasm.repository.LookupValueRepository;
+import io.jrb.labs.docasm.resource.DocumentResource;
+import io.jrb.labs.docasm.service.DocumentService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.relational.core.query.Criteria.where;
+import static org.springframework.data.relational.core.query.Query.query;
+
+/**
+ * Compares the single-statement DEEP fetch of a document with the previous three-query path
+ * (document by guid, then sections and lookup values by document id).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DocumentFetchBenchmark {
+
+    private static final int TAG_COUNT = 10;
+
+    @Param({"10", "100"})
+    private int sectionCount;
+
+    private ConfigurableApplicationContext context;
+    private DocumentRepository documentRepository;
+    private DocumentSectionRepository documentSectionRepository;
+    private LookupValueRepository lookupValueRepository;
+    private R2dbcEntityTemplate entityTemplate;
+    private UUID guid;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        documentRepository = context.getBean(DocumentRepository.class);
+        documentSectionRepository = context.getBean(DocumentSectionRepository.class);
+        lookupValueRepository = context.getBean(LookupValueRepository.class);
+        entityTemplate = context.getBean(R2dbcEntityTemplate.class);
+
+        final DocumentResource document = DocumentFixtures.document("Benchmark", sectionCount, TAG_COUNT);
+        guid = context.getBean(DocumentService.class).createDocument(document).block().getGuid();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public DocumentAggregate singleStatement() {
+        return documentRepository.findAggregateByGuid(guid).block();
+    }
+
+    @Benchmark
+    public DocumentAggregate threeQueries() {
+        return entityTemplate.selectOne(query(where("guid").is(guid)), Document.class)
+                .flatMap(document -> Mono.zip(
+                        documentSectionRepository.findAllByDocumentIdOrderByIdAsc(document.getId()).collectList(),
+                        lookupValueRepository.findByEntityTypeAndEntityId(EntityType.DOCUMENT, document.getId())
+                                .collectList()
+                ).map(tuple -> DocumentAggregate.builder()
+                        .document(document)
+                        .sections(tuple.getT1())
+                        .lookupValues(tuple.getT2())
+                        .build()))
+                .block();
+    }
+
+}
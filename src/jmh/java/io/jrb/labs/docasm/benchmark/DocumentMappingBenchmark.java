@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.benchmark;
+
+import io.jrb.labs.docasm.fixture.DocumentFixtures;
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.resource.DocumentResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the mapping between document resources and entities, including rebuilding the resource with its
+ * sections and tags as the DEEP projection does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentMappingBenchmark {
+
+    private static final int TAG_COUNT = 10;
+
+    @Param({"0", "20", "200"})
+    private int sectionCount;
+
+    private DocumentResource resource;
+    private Document document;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        resource = DocumentFixtures.document("Benchmark", sectionCount, TAG_COUNT);
+        final Instant now = Instant.now();
+        document = Document.fromResource(resource)
+                .id(1L)
+                .guid(UUID.randomUUID())
+                .createdBy("benchmark")
+                .createdOn(now)
+                .modifiedBy("benchmark")
+                .modifiedOn(now)
+                .build();
+    }
+
+    @Benchmark
+    public Document fromResource() {
+        return Document.fromResource(resource).build();
+    }
+
+    @Benchmark
+    public DocumentResource fromEntity() {
+        return DocumentResource.fromEntity(document).build();
+    }
+
+    @Benchmark
+    public DocumentResource fromEntityDeep() {
+        return DocumentResource.fromEntity(document)
+                .tags(resource.getTags())
+                .sections(resource.getSections())
+                .build();
+    }
+
+}
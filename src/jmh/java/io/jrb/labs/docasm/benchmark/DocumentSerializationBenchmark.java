@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.benchmark;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.jrb.labs.docasm.fixture.DocumentFixtures;
+import io.jrb.labs.docasm.model.Projection;
+import io.jrb.labs.docasm.resource.DocumentResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures JSON encoding of a document resource wrapped in a {@link MappingJacksonValue}, which is how the
+ * controller selects the view for each projection.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DocumentSerializationBenchmark {
+
+    private static final int TAG_COUNT = 10;
+    private static final ResolvableType VALUE_TYPE = ResolvableType.forClass(MappingJacksonValue.class);
+
+    @Param({"SUMMARY", "DETAILS", "DEEP"})
+    private Projection projection;
+
+    @Param({"20", "200"})
+    private int sectionCount;
+
+    private Jackson2JsonEncoder encoder;
+    private DataBufferFactory bufferFactory;
+    private MappingJacksonValue value;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        encoder = new Jackson2JsonEncoder(Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build());
+        bufferFactory = new DefaultDataBufferFactory();
+
+        final Instant now = Instant.now();
+        final DocumentResource resource = DocumentFixtures.document("Benchmark", sectionCount, TAG_COUNT)
+                .toBuilder()
+                .guid(UUID.randomUUID())
+                .createdBy("benchmark")
+                .createdOn(now)
+                .modifiedBy("benchmark")
+                .modifiedOn(now)
+                .build();
+        value = new MappingJacksonValue(resource);
+        value.setSerializationView(projection.getView());
+    }
+
+    @Benchmark
+    public int encode() {
+        final DataBuffer buffer = encoder.encodeValue(value, bufferFactory, VALUE_TYPE, MediaType.APPLICATION_JSON, null);
+        try {
+            return buffer.readableByteCount();
+        } finally {
+            DataBufferUtils.release(buffer);
+        }
+    }
+
+}
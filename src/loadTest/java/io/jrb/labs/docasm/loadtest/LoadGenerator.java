@@ -0,0 +1,176 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.loadtest;
+
+import io.jrb.labs.docasm.fixture.DocumentFixtures;
+import io.jrb.labs.docasm.model.Projection;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator. Requests are released on a fixed schedule derived from the target rate, whatever
+ * the state of earlier requests, so a slow server sees the arrivals it would see in production instead of a
+ * closed loop that backs off with it.
+ */
+final class LoadGenerator implements AutoCloseable {
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadTestOptions options;
+    private final List<UUID> corpus;
+    private final ConnectionProvider connectionProvider;
+    private final WebClient webClient;
+    private final SplittableRandom random;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+
+    LoadGenerator(final LoadTestOptions options, final List<UUID> corpus, final int port) {
+        this.options = options;
+        this.corpus = corpus;
+        this.connectionProvider = ConnectionProvider.builder("loadtest")
+                .maxConnections(options.getMaxInFlight())
+                .pendingAcquireMaxCount(-1)
+                .build();
+        this.webClient = WebClient.builder()
+                .baseUrl("http://localhost:" + port + "/api/documents")
+                .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                .build();
+        this.random = new SplittableRandom(options.getSeed());
+        for (final Operation operation : Operation.values()) {
+            stats.put(operation, new OperationStats());
+        }
+    }
+
+    Map<Operation, OperationStats.Snapshot> run(final Duration duration) {
+        final double intervalNanos = (double) TimeUnit.SECONDS.toNanos(1) / options.getRate();
+        final long start = System.nanoTime();
+        final long end = start + duration.toNanos();
+        for (long i = 0; ; i++) {
+            final long intended = start + (long) (i * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            waitUntil(intended);
+
+            final Operation operation = options.getWorkload().next(random.nextInt(100));
+            final OperationStats operationStats = stats.get(operation);
+            if (inFlight.incrementAndGet() > options.getMaxInFlight()) {
+                inFlight.decrementAndGet();
+                operationStats.reject();
+                continue;
+            }
+            final long sent = System.nanoTime();
+            execute(operation).subscribe(
+                    status -> complete(operationStats, intended, sent, !status.isError()),
+                    error -> complete(operationStats, intended, sent, false)
+            );
+        }
+        drain();
+
+        final Map<Operation, OperationStats.Snapshot> snapshots = new EnumMap<>(Operation.class);
+        stats.forEach((operation, operationStats) -> snapshots.put(operation, operationStats.snapshot()));
+        return snapshots;
+    }
+
+    @Override
+    public void close() {
+        connectionProvider.dispose();
+    }
+
+    private Mono<HttpStatus> execute(final Operation operation) {
+        switch (operation) {
+            case CREATE:
+                return exchange(webClient.post()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(DocumentFixtures.document("Load " + sequence.incrementAndGet(),
+                                options.getSectionCount(), options.getTagCount())));
+            case UPDATE:
+                final Map<String, Object> replaceName = Map.of(
+                        "op", "replace",
+                        "path", "/name",
+                        "value", "Load " + sequence.incrementAndGet()
+                );
+                return exchange(webClient.patch()
+                        .uri("/{guid}", randomGuid())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(Collections.singletonList(replaceName)));
+            case LIST:
+                return exchange(webClient.get()
+                        .uri(uri -> uri.queryParam("limit", 50).build()));
+            case READ:
+            default:
+                return exchange(webClient.get()
+                        .uri(uri -> uri.path("/{guid}")
+                                .queryParam("projection", Projection.DEEP)
+                                .build(randomGuid())));
+        }
+    }
+
+    private Mono<HttpStatus> exchange(final WebClient.RequestHeadersSpec<?> request) {
+        return request.exchangeToMono(response -> response.releaseBody().thenReturn(response.statusCode()));
+    }
+
+    private UUID randomGuid() {
+        return corpus.get(random.nextInt(corpus.size()));
+    }
+
+    private void complete(final OperationStats operationStats, final long intended, final long sent,
+                          final boolean success) {
+        operationStats.record(intended, sent, success);
+        inFlight.decrementAndGet();
+    }
+
+    private void drain() {
+        final long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+    }
+
+    private static void waitUntil(final long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prints the latency percentiles of a run and writes the full HdrHistogram distributions, in milliseconds, as
+ * {@code .hgrm} files that the HdrHistogram plotter can load.
+ */
+final class LoadReport {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final String ALL = "ALL";
+
+    private final LoadTestOptions options;
+    private final Map<Operation, OperationStats.Snapshot> snapshots;
+
+    LoadReport(final LoadTestOptions options, final Map<Operation, OperationStats.Snapshot> snapshots) {
+        this.options = options;
+        this.snapshots = snapshots;
+    }
+
+    void print(final PrintStream out) {
+        out.println();
+        out.println("Load test: " + options);
+        out.println("Response time (ms, from intended send time, corrected for coordinated omission)");
+        out.printf(Locale.ROOT, "%-8s %10s %8s %8s %10s %10s %10s %10s %12s%n",
+                "op", "count", "errors", "dropped", "p50", "p99", "p99.9", "max", "svc p99.9");
+
+        final Histogram allResponses = new Histogram(3);
+        final Histogram allServices = new Histogram(3);
+        long allErrors = 0;
+        long allDropped = 0;
+        for (final Map.Entry<Operation, OperationStats.Snapshot> entry : snapshots.entrySet()) {
+            final OperationStats.Snapshot snapshot = entry.getValue();
+            if (snapshot.getResponseTime().getTotalCount() == 0 && snapshot.getDropped() == 0) {
+                continue;
+            }
+            printRow(out, entry.getKey().name(), snapshot.getResponseTime(), snapshot.getServiceTime(),
+                    snapshot.getErrors(), snapshot.getDropped());
+            allResponses.add(snapshot.getResponseTime());
+            allServices.add(snapshot.getServiceTime());
+            allErrors += snapshot.getErrors();
+            allDropped += snapshot.getDropped();
+        }
+        printRow(out, ALL, allResponses, allServices, allErrors, allDropped);
+        out.printf(Locale.ROOT, "Achieved throughput: %.1f req/s (target %d req/s)%n",
+                (double) allResponses.getTotalCount() / options.getDuration().getSeconds(), options.getRate());
+    }
+
+    void write(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        final String prefix = options.getWorkload().name().toLowerCase(Locale.ROOT);
+        for (final Map.Entry<Operation, OperationStats.Snapshot> entry : snapshots.entrySet()) {
+            final String name = prefix + "-" + entry.getKey().name().toLowerCase(Locale.ROOT);
+            writeHistogram(directory.resolve(name + ".hgrm"), entry.getValue().getResponseTime());
+            writeHistogram(directory.resolve(name + "-service.hgrm"), entry.getValue().getServiceTime());
+        }
+    }
+
+    private static void printRow(final PrintStream out, final String name, final Histogram responseTime,
+                                 final Histogram serviceTime, final long errors, final long dropped) {
+        out.printf(Locale.ROOT, "%-8s %10d %8d %8d %10.2f %10.2f %10.2f %10.2f %12.2f%n",
+                name,
+                responseTime.getTotalCount(),
+                errors,
+                dropped,
+                millis(responseTime.getValueAtPercentile(50.0)),
+                millis(responseTime.getValueAtPercentile(99.0)),
+                millis(responseTime.getValueAtPercentile(99.9)),
+                millis(responseTime.getMaxValue()),
+                millis(serviceTime.getValueAtPercentile(99.9)));
+    }
+
+    private static void writeHistogram(final Path file, final Histogram histogram) throws IOException {
+        try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, "UTF-8")) {
+            histogram.outputPercentileDistribution(out, NANOS_PER_MILLI);
+        }
+    }
+
+    private static double millis(final long nanos) {
+        return nanos / NANOS_PER_MILLI;
+    }
+
+}
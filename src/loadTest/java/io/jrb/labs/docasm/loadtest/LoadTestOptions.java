@@ -0,0 +1,153 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.loadtest;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line options of the load harness. Arguments that are not recognized here are passed on to the
+ * application, so any {@code --docasm.*} or {@code --spring.*} property can be overridden for a run.
+ */
+final class LoadTestOptions {
+
+    private Workload workload = Workload.READ_HEAVY;
+    private int rate = 200;
+    private Duration warmup = Duration.ofSeconds(10);
+    private Duration duration = Duration.ofSeconds(60);
+    private int corpusSize = 1_000;
+    private int sectionCount = 20;
+    private int tagCount = 10;
+    private int maxInFlight = 5_000;
+    private long seed = 42L;
+    private Path reportDir = Paths.get("build", "reports", "loadtest");
+    private final List<String> applicationArgs = new ArrayList<>();
+
+    private LoadTestOptions() {
+    }
+
+    static LoadTestOptions parse(final String... args) {
+        final LoadTestOptions options = new LoadTestOptions();
+        for (final String arg : args) {
+            final int separator = arg.indexOf('=');
+            final String name = separator > 0 ? arg.substring(0, separator) : arg;
+            final String value = separator > 0 ? arg.substring(separator + 1) : "";
+            switch (name) {
+                case "--workload":
+                    options.workload = Workload.valueOf(value.toUpperCase().replace('-', '_'));
+                    break;
+                case "--rate":
+                    options.rate = Integer.parseInt(value);
+                    break;
+                case "--warmup":
+                    options.warmup = Duration.ofSeconds(Long.parseLong(value));
+                    break;
+                case "--duration":
+                    options.duration = Duration.ofSeconds(Long.parseLong(value));
+                    break;
+                case "--corpus-size":
+                    options.corpusSize = Integer.parseInt(value);
+                    break;
+                case "--sections":
+                    options.sectionCount = Integer.parseInt(value);
+                    break;
+                case "--tags":
+                    options.tagCount = Integer.parseInt(value);
+                    break;
+                case "--max-in-flight":
+                    options.maxInFlight = Integer.parseInt(value);
+                    break;
+                case "--seed":
+                    options.seed = Long.parseLong(value);
+                    break;
+                case "--report-dir":
+                    options.reportDir = Paths.get(value);
+                    break;
+                default:
+                    options.applicationArgs.add(arg);
+            }
+        }
+        if (options.rate <= 0) {
+            throw new IllegalArgumentException("--rate must be positive");
+        }
+        if (options.corpusSize <= 0) {
+            throw new IllegalArgumentException("--corpus-size must be positive");
+        }
+        return options;
+    }
+
+    Workload getWorkload() {
+        return workload;
+    }
+
+    int getRate() {
+        return rate;
+    }
+
+    Duration getWarmup() {
+        return warmup;
+    }
+
+    Duration getDuration() {
+        return duration;
+    }
+
+    int getCorpusSize() {
+        return corpusSize;
+    }
+
+    int getSectionCount() {
+        return sectionCount;
+    }
+
+    int getTagCount() {
+        return tagCount;
+    }
+
+    int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    Path getReportDir() {
+        return reportDir;
+    }
+
+    List<String> getApplicationArgs() {
+        return applicationArgs;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("workload=%s rate=%d/s warmup=%ds duration=%ds corpus=%d sections=%d tags=%d",
+                workload, rate, warmup.getSeconds(), duration.getSeconds(), corpusSize, sectionCount, tagCount);
+    }
+
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.loadtest;
+
+import io.jrb.labs.docasm.DocasmApplication;
+import io.jrb.labs.docasm.fixture.DocumentFixtures;
+import io.jrb.labs.docasm.resource.DocumentResource;
+import io.jrb.labs.docasm.service.DocumentService;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Boots the service on a random port with an in-memory database, seeds a corpus of documents and drives
+ * {@code /api/documents} over HTTP with one of the {@link Workload} mixes. Everything runs in this JVM, so a
+ * run needs neither network access nor external services.
+ */
+public final class LoadTestRunner {
+
+    private static final int SEED_CONCURRENCY = 8;
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(final String[] args) throws IOException {
+        final LoadTestOptions options = LoadTestOptions.parse(args);
+        try (ConfigurableApplicationContext context = start(options)) {
+            final int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            final List<UUID> corpus = seed(context.getBean(DocumentService.class), options);
+
+            try (LoadGenerator generator = new LoadGenerator(options, corpus, port)) {
+                System.out.printf("Warming up for %ds at %d req/s%n", options.getWarmup().getSeconds(), options.getRate());
+                generator.run(options.getWarmup());
+
+                System.out.printf("Measuring for %ds at %d req/s%n", options.getDuration().getSeconds(), options.getRate());
+                final Map<Operation, OperationStats.Snapshot> results = generator.run(options.getDuration());
+
+                final LoadReport report = new LoadReport(options, results);
+                report.print(System.out);
+                report.write(options.getReportDir());
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start(final LoadTestOptions options) {
+        final List<String> arguments = new ArrayList<>(Arrays.asList(
+                "--spring.profiles.active=loadtest",
+                "--spring.cloud.config.enabled=false",
+                "--spring.cloud.config.import-check.enabled=false",
+                "--server.port=0",
+                "--logging.level.root=WARN"
+        ));
+        arguments.addAll(options.getApplicationArgs());
+        return new SpringApplicationBuilder(DocasmApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .run(arguments.toArray(new String[0]));
+    }
+
+    private static List<UUID> seed(final DocumentService documentService, final LoadTestOptions options) {
+        System.out.printf("Seeding %d documents%n", options.getCorpusSize());
+        return Flux.range(0, options.getCorpusSize())
+                .flatMapSequential(i -> documentService.createDocument(DocumentFixtures.document(
+                        "Seed " + i, options.getSectionCount(), options.getTagCount())), SEED_CONCURRENCY)
+                .map(DocumentResource::getGuid)
+                .collectList()
+                .block();
+    }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.loadtest;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency recorders for one operation. Response time is measured from the intended send time of the request,
+ * so a stalled server is charged for the requests that queued up behind it; service time is measured from the
+ * actual send time and shows what the result would look like without coordinated omission correction. A request
+ * rejected at the in-flight limit never reaches the server, so it counts as an error as well as a drop rather than
+ * vanishing from the results.
+ */
+final class OperationStats {
+
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private final Recorder responseTime = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+    private final Recorder serviceTime = new Recorder(HIGHEST_TRACKABLE_NANOS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    void record(final long intendedNanos, final long sentNanos, final boolean success) {
+        final long now = System.nanoTime();
+        responseTime.recordValue(Math.min(now - intendedNanos, HIGHEST_TRACKABLE_NANOS));
+        serviceTime.recordValue(Math.min(now - sentNanos, HIGHEST_TRACKABLE_NANOS));
+        if (!success) {
+            errors.increment();
+        }
+    }
+
+    void reject() {
+        dropped.increment();
+        errors.increment();
+    }
+
+    Snapshot snapshot() {
+        return new Snapshot(
+                responseTime.getIntervalHistogram(),
+                serviceTime.getIntervalHistogram(),
+                errors.sumThenReset(),
+                dropped.sumThenReset()
+        );
+    }
+
+    static final class Snapshot {
+
+        private final Histogram responseTime;
+        private final Histogram serviceTime;
+        private final long errors;
+        private final long dropped;
+
+        Snapshot(final Histogram responseTime, final Histogram serviceTime, final long errors, final long dropped) {
+            this.responseTime = responseTime;
+            this.serviceTime = serviceTime;
+            this.errors = errors;
+            this.dropped = dropped;
+        }
+
+        Histogram getResponseTime() {
+            return responseTime;
+        }
+
+        Histogram getServiceTime() {
+            return serviceTime;
+        }
+
+        long getErrors() {
+            return errors;
+        }
+
+        long getDropped() {
+            return dropped;
+        }
+
+    }
+
+}
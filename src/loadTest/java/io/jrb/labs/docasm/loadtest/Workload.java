@@ -0,0 +1,52 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.loadtest;
+
+/**
+ * Request mixes, expressed as percentages of READ, CREATE, UPDATE and LIST operations.
+ */
+enum Workload {
+
+    READ_HEAVY(90, 5, 3, 2),
+    WRITE_HEAVY(30, 40, 30, 0),
+    LIST_HEAVY(20, 5, 5, 70);
+
+    private final int[] weights;
+
+    Workload(final int... weights) {
+        this.weights = weights;
+    }
+
+    Operation next(final int roll) {
+        int threshold = 0;
+        for (final Operation operation : Operation.values()) {
+            threshold += weights[operation.ordinal()];
+            if (roll < threshold) {
+                return operation;
+            }
+        }
+        return Operation.READ;
+    }
+
+}
@@ -23,10 +23,12 @@
  */
 package io.jrb.labs.common.module.command;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 @ComponentScan(basePackages = "io.jrb.labs.common.module.command")
+@EnableConfigurationProperties(CommandModuleProperties.class)
 public class CommandModuleJavaConfig {
 }
@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.module.command;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Data
+@ConfigurationProperties(prefix = "command")
+public class CommandModuleProperties {
+
+    /** Limits applied to every command, unless overridden in {@code commands}. */
+    private final Limits defaults = new Limits(64, 256, Duration.ofSeconds(10));
+
+    /**
+     * Limits per command, keyed by the simple name of the command interface, e.g. {@code PingCommand}. A limit left
+     * out of an entry is taken from {@code defaults}.
+     */
+    private final Map<String, Limits> commands = new HashMap<>();
+
+    public Limits limitsFor(final String commandName) {
+        return commands.entrySet().stream()
+                .filter(entry -> entry.getKey().equalsIgnoreCase(commandName))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .map(overrides -> overrides.over(defaults))
+                .orElse(defaults);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Limits {
+
+        /** Maximum number of executions of the command running at the same time. */
+        private Integer maxConcurrent;
+
+        /** Maximum number of executions waiting for a slot before new ones are rejected. */
+        private Integer maxQueued;
+
+        /** Maximum time an execution may take, including the time spent waiting for a slot. */
+        private Duration timeout;
+
+        Limits over(final Limits defaults) {
+            return new Limits(
+                    Optional.ofNullable(maxConcurrent).orElse(defaults.maxConcurrent),
+                    Optional.ofNullable(maxQueued).orElse(defaults.maxQueued),
+                    Optional.ofNullable(timeout).orElse(defaults.timeout)
+            );
+        }
+
+    }
+
+}
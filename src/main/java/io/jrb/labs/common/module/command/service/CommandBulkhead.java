@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.module.command.service;
+
+import io.jrb.labs.common.module.command.service.exception.CommandRejectedException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Supplier;
+
+/**
+ * Limits the number of executions of one command running at the same time. Executions beyond the limit wait in a
+ * bounded FIFO queue; once the queue is full they fail immediately with a {@link CommandRejectedException}.
+ */
+class CommandBulkhead {
+
+    private final String commandName;
+    private final int maxConcurrent;
+    private final int maxQueued;
+    private final Deque<Task<?>> queue = new ArrayDeque<>();
+    private int active;
+
+    CommandBulkhead(final String commandName, final int maxConcurrent, final int maxQueued) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("maxConcurrent must be at least 1 for command " + commandName);
+        }
+        this.commandName = commandName;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueued = Math.max(0, maxQueued);
+    }
+
+    <T> Mono<T> execute(final Supplier<Mono<T>> execution) {
+        return Mono.create(sink -> {
+            final Task<T> task = new Task<>(execution, sink);
+            sink.onCancel(task::cancel);
+            final boolean admitted;
+            synchronized (this) {
+                if (active < maxConcurrent) {
+                    active++;
+                    admitted = true;
+                } else if (queue.size() < maxQueued) {
+                    queue.addLast(task);
+                    return;
+                } else {
+                    admitted = false;
+                }
+            }
+            if (admitted) {
+                task.run();
+            } else {
+                sink.error(new CommandRejectedException(commandName));
+            }
+        });
+    }
+
+    synchronized int getActive() {
+        return active;
+    }
+
+    synchronized int getQueued() {
+        return queue.size();
+    }
+
+    private void release() {
+        final Task<?> next;
+        synchronized (this) {
+            next = queue.pollFirst();
+            if (next == null) {
+                active--;
+            }
+        }
+        if (next != null) {
+            next.run();
+        }
+    }
+
+    private synchronized boolean dequeue(final Task<?> task) {
+        return queue.remove(task);
+    }
+
+    private final class Task<T> {
+
+        private final Supplier<Mono<T>> execution;
+        private final MonoSink<T> sink;
+        private volatile Disposable subscription;
+        private volatile boolean cancelled;
+
+        Task(final Supplier<Mono<T>> execution, final MonoSink<T> sink) {
+            this.execution = execution;
+            this.sink = sink;
+        }
+
+        void run() {
+            if (cancelled) {
+                release();
+                return;
+            }
+            final Mono<T> mono;
+            try {
+                mono = execution.get();
+            } catch (final RuntimeException e) {
+                release();
+                sink.error(e);
+                return;
+            }
+            subscription = mono
+                    .doFinally(signal -> release())
+                    .subscribe(value -> sink.success(value), sink::error, () -> sink.success());
+            if (cancelled) {
+                subscription.dispose();
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            if (!dequeue(this)) {
+                final Disposable current = subscription;
+                if (current != null) {
+                    current.dispose();
+                }
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.module.command.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Everything the executor needs to run one command, resolved once when the command is registered.
+ */
+class CommandDescriptor {
+
+    private final String name;
+    private final Command<?, ?> command;
+    private final boolean validated;
+    private final CommandBulkhead bulkhead;
+    private final Duration timeout;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    CommandDescriptor(
+            final String name,
+            final Command<?, ?> command,
+            final boolean validated,
+            final CommandBulkhead bulkhead,
+            final Duration timeout,
+            final MeterRegistry meterRegistry
+    ) {
+        this.name = name;
+        this.command = command;
+        this.validated = validated;
+        this.bulkhead = bulkhead;
+        this.timeout = timeout;
+        this.meterRegistry = meterRegistry;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    @SuppressWarnings("unchecked")
+    <R extends CommandRequest, T extends CommandResponse> Command<R, T> getCommand() {
+        return (Command<R, T>) command;
+    }
+
+    /**
+     * Returns whether the request type declares constraints, so that unconstrained requests skip the validator.
+     */
+    boolean isValidated() {
+        return validated;
+    }
+
+    CommandBulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    Duration getTimeout() {
+        return timeout;
+    }
+
+    void record(final String outcome, final long elapsedNanos) {
+        timers.computeIfAbsent(outcome, key -> Timer.builder(CommandExecutorImpl.TIMER_NAME)
+                .description("Command execution time")
+                .tag("command", name)
+                .tag("outcome", key)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+}
@@ -23,6 +23,7 @@
  */
 package io.jrb.labs.common.module.command.service;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
@@ -44,4 +45,38 @@ public interface CommandExecutor {
             R request
     );
 
+    /**
+     * Executes a command once for each request of a batch. The batch is collected and every request validated
+     * before any is executed, so the request stream must be finite; a request that fails validation or execution
+     * yields a response carrying its error rather than failing the batch.
+     *
+     * @param commandClass the command class
+     * @param requests the command requests
+     * @param options the batch options
+     * @param <R> the command request type
+     * @param <T> the command response type
+     * @return one command response per request, indexed by the position of the request in the batch
+     */
+    <R extends CommandRequest, T extends CommandResponse> Flux<CommandResponseWrapper<T>> executeAll(
+            Class<? extends Command<R, T>> commandClass,
+            Flux<R> requests,
+            CommandBatchOptions options
+    );
+
+    /**
+     * Executes a command once for each request of a batch, using the default batch options.
+     *
+     * @param commandClass the command class
+     * @param requests the command requests
+     * @param <R> the command request type
+     * @param <T> the command response type
+     * @return one command response per request, in request order
+     */
+    default <R extends CommandRequest, T extends CommandResponse> Flux<CommandResponseWrapper<T>> executeAll(
+            final Class<? extends Command<R, T>> commandClass,
+            final Flux<R> requests
+    ) {
+        return executeAll(commandClass, requests, CommandBatchOptions.defaults());
+    }
+
 }
@@ -23,32 +23,52 @@
  */
 package io.jrb.labs.common.module.command.service;
 
+import io.jrb.labs.common.module.command.service.exception.CommandEmptyResponseException;
+import io.jrb.labs.common.module.command.service.exception.CommandRejectedException;
+import io.jrb.labs.common.module.command.service.exception.CommandTimeoutException;
 import io.jrb.labs.common.module.command.service.exception.CommandValidationException;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationContext;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
 import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Provides a command executor that validates a request before executing the commmand with the validated data.
+ * Each command runs behind its own bulkhead and timeout, so a slow command cannot hold up the others. Every
+ * execution is recorded in the {@value #TIMER_NAME} timer, tagged with the command and its outcome; the time
+ * recorded includes any wait for a bulkhead slot. A command completing without a response fails with
+ * {@link CommandEmptyResponseException}. Batches resolve the command once, validate all of their requests before
+ * executing any, and share the command bulkhead with single executions.
  */
 @Service
 @Slf4j
 public class CommandExecutorImpl implements CommandExecutor {
 
-    private final ApplicationContext applicationContext;
+    static final String TIMER_NAME = "command.execution";
+    static final String OUTCOME_SUCCESS = "success";
+    static final String OUTCOME_VALIDATION_FAILURE = "validation_failure";
+    static final String OUTCOME_ERROR = "error";
+    static final String OUTCOME_REJECTED = "rejected";
+    static final String OUTCOME_TIMEOUT = "timeout";
+
+    private final CommandRegistry commandRegistry;
     private final Validator validator;
 
     public CommandExecutorImpl(
-            final ApplicationContext applicationContext,
+            final CommandRegistry commandRegistry,
             final Validator validator
     ) {
-        this.applicationContext = applicationContext;
+        this.commandRegistry = commandRegistry;
         this.validator = validator;
     }
 
@@ -57,27 +77,104 @@ public class CommandExecutorImpl implements CommandExecutor {
             final Class<? extends Command<R, T>> commandClass,
             final R request
     ) {
-        final Command<R, T> command = applicationContext.getBean(commandClass);
-        final Set<ConstraintViolation<R>> constraintViolations = validator.validate(request);
-        if (constraintViolations.isEmpty()) {
-            return Mono.defer(() -> {
+        return run(commandRegistry.lookup(commandClass), commandClass, request, 0L);
+    }
+
+    @Override
+    public <R extends CommandRequest, T extends CommandResponse> Flux<CommandResponseWrapper<T>> executeAll(
+            final Class<? extends Command<R, T>> commandClass,
+            final Flux<R> requests,
+            final CommandBatchOptions options
+    ) {
+        final CommandDescriptor descriptor = commandRegistry.lookup(commandClass);
+        return requests.index()
+                .collectList()
+                .flatMapMany(batch -> {
+                    // run validates eagerly, so the whole batch is validated before any of its requests executes
+                    final List<Mono<CommandResponseWrapper<T>>> runs = batch.stream()
+                            .map(item -> this.<R, T>run(descriptor, commandClass, item.getT2(), item.getT1())
+                                    .onErrorResume(error -> Mono.just(CommandResponseWrapper.<T>builder()
+                                            .index(item.getT1())
+                                            .error(error)
+                                            .build())))
+                            .collect(Collectors.toList());
+                    return options.isOrdered()
+                            ? Flux.fromIterable(runs).flatMapSequential(Function.identity(), options.getParallelism())
+                            : Flux.fromIterable(runs).flatMap(Function.identity(), options.getParallelism());
+                });
+    }
+
+    private <R extends CommandRequest, T extends CommandResponse> Mono<CommandResponseWrapper<T>> executeValidated(
+            final CommandDescriptor descriptor,
+            final Class<?> commandClass,
+            final R request,
+            final long index
+    ) {
+        final Command<R, T> command = descriptor.getCommand();
+        return Mono.defer(() -> {
+            final long submitted = System.nanoTime();
+            return descriptor.getBulkhead().execute(() -> {
                 log.info("START command {} - request={}", commandClass, request);
-                return Mono.just(Instant.now());
-            })
-                    .zipWith(command.execute(request))
-                    .map(tuple -> {
-                        final Instant startTimestamp = tuple.getT1();
-                        final T content = tuple.getT2();
-                        return CommandResponseWrapper.<T>builder()
+                final Instant startTimestamp = Instant.now();
+                final long start = System.nanoTime();
+                return command.execute(request)
+                        .switchIfEmpty(Mono.error(() -> new CommandEmptyResponseException(descriptor.getName())))
+                        .map(content -> CommandResponseWrapper.<T>builder()
+                                .index(index)
                                 .startTimestamp(startTimestamp)
                                 .content(content)
                                 .endTimestamp(Instant.now())
-                                .build();
-                    }).doOnSuccess(response -> {
+                                .elapsedNanos(System.nanoTime() - start)
+                                .build());
+            })
+                    .timeout(descriptor.getTimeout(), Mono.defer(() -> Mono.error(
+                            new CommandTimeoutException(descriptor.getName(), descriptor.getTimeout()))))
+                    .doOnSuccess(response -> {
+                        descriptor.record(OUTCOME_SUCCESS, System.nanoTime() - submitted);
                         log.info("COMPLETE command {} - request={}", commandClass, request);
-                    });
+                    })
+                    .doOnError(error -> descriptor.record(outcomeOf(error), System.nanoTime() - submitted));
+        });
+    }
+
+    private <R extends CommandRequest, T extends CommandResponse> Mono<CommandResponseWrapper<T>> run(
+            final CommandDescriptor descriptor,
+            final Class<?> commandClass,
+            final R request,
+            final long index
+    ) {
+        return validate(descriptor, request)
+                .<Mono<CommandResponseWrapper<T>>>map(Mono::error)
+                .orElseGet(() -> executeValidated(descriptor, commandClass, request, index));
+    }
+
+    /**
+     * Validates a request when its command requires it, recording a validation failure.
+     *
+     * @return the validation error, empty when the request is valid
+     */
+    private <R extends CommandRequest> Optional<CommandValidationException> validate(
+            final CommandDescriptor descriptor,
+            final R request
+    ) {
+        final long validationStart = System.nanoTime();
+        final Set<ConstraintViolation<R>> constraintViolations = descriptor.isValidated()
+                ? validator.validate(request)
+                : Collections.emptySet();
+        if (constraintViolations.isEmpty()) {
+            return Optional.empty();
+        }
+        descriptor.record(OUTCOME_VALIDATION_FAILURE, System.nanoTime() - validationStart);
+        return Optional.of(new CommandValidationException(constraintViolations));
+    }
+
+    private static String outcomeOf(final Throwable error) {
+        if (error instanceof CommandRejectedException) {
+            return OUTCOME_REJECTED;
+        } else if (error instanceof CommandTimeoutException) {
+            return OUTCOME_TIMEOUT;
         } else {
-            return Mono.error(new CommandValidationException(constraintViolations));
+            return OUTCOME_ERROR;
         }
     }
 
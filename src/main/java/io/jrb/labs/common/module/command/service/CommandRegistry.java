@@ -0,0 +1,120 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.common.module.command.service;
+
+import io.jrb.labs.common.module.command.CommandModuleProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.ResolvableType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import javax.validation.Validator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves every {@link Command} bean once at startup, together with its request validation metadata, bulkhead
+ * and timeout. Commands are registered under each command interface they implement and under their own class.
+ */
+@Component
+@Slf4j
+public class CommandRegistry implements SmartInitializingSingleton {
+
+    private final ApplicationContext applicationContext;
+    private final Validator validator;
+    private final CommandModuleProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, CommandDescriptor> descriptors = new ConcurrentHashMap<>();
+
+    public CommandRegistry(
+            final ApplicationContext applicationContext,
+            final Validator validator,
+            final CommandModuleProperties properties,
+            final MeterRegistry meterRegistry
+    ) {
+        this.applicationContext = applicationContext;
+        this.validator = validator;
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        applicationContext.getBeansOfType(Command.class).values().forEach(this::register);
+    }
+
+    CommandDescriptor lookup(final Class<?> commandClass) {
+        final CommandDescriptor descriptor = descriptors.get(commandClass);
+        return descriptor != null ? descriptor : register(applicationContext.getBean(commandClass));
+    }
+
+    private synchronized CommandDescriptor register(final Object command) {
+        final Class<?> commandClass = AopUtils.getTargetClass(command);
+        final CommandDescriptor existing = descriptors.get(commandClass);
+        if (existing != null) {
+            return existing;
+        }
+
+        final String name = ClassUtils.getAllInterfacesForClassAsSet(commandClass).stream()
+                .filter(type -> type != Command.class && Command.class.isAssignableFrom(type))
+                .findFirst()
+                .orElse(commandClass)
+                .getSimpleName();
+        final CommandModuleProperties.Limits limits = properties.limitsFor(name);
+        final CommandBulkhead bulkhead = new CommandBulkhead(name, limits.getMaxConcurrent(), limits.getMaxQueued());
+        final CommandDescriptor descriptor = new CommandDescriptor(
+                name, (Command<?, ?>) command, isValidated(commandClass), bulkhead, limits.getTimeout(), meterRegistry
+        );
+
+        Gauge.builder("command.bulkhead.active", bulkhead, CommandBulkhead::getActive)
+                .description("Executions of the command currently running")
+                .tag("command", name)
+                .register(meterRegistry);
+        Gauge.builder("command.bulkhead.queued", bulkhead, CommandBulkhead::getQueued)
+                .description("Executions of the command waiting for a slot")
+                .tag("command", name)
+                .register(meterRegistry);
+
+        descriptors.put(commandClass, descriptor);
+        ClassUtils.getAllInterfacesForClassAsSet(commandClass).stream()
+                .filter(type -> type != Command.class && Command.class.isAssignableFrom(type))
+                .forEach(type -> descriptors.putIfAbsent(type, descriptor));
+        log.info("Registered command {} - maxConcurrent={}, maxQueued={}, timeout={}",
+                name, limits.getMaxConcurrent(), limits.getMaxQueued(), limits.getTimeout());
+        return descriptor;
+    }
+
+    private boolean isValidated(final Class<?> commandClass) {
+        final Class<?> requestClass = ResolvableType.forClass(commandClass).as(Command.class).resolveGeneric(0);
+        return requestClass == null
+                || requestClass == CommandRequest.class
+                || validator.getConstraintsForClass(requestClass).isBeanConstrained();
+    }
+
+}
@@ -27,30 +27,44 @@ import lombok.Builder;
 import lombok.Value;
 
 import java.time.Instant;
-import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Value
 @Builder
 public class CommandResponseWrapper<T extends CommandResponse> {
 
+    /**
+     * Position of the request in a batch submitted through {@link CommandExecutor#executeAll}; 0 otherwise.
+     */
+    long index;
+
     T content;
 
+    /**
+     * Failure of a batched request; single executions signal failures as errors instead.
+     */
+    Throwable error;
+
     Instant startTimestamp;
 
     Instant endTimestamp;
 
+    /**
+     * Monotonic execution time of the command, measured with {@link System#nanoTime()}.
+     */
+    long elapsedNanos;
+
+    /**
+     * Returns the execution time of the command in milliseconds.
+     *
+     * @return the elapsed time in milliseconds
+     */
     public long getElapsedTime() {
-        final long startTimeEpochSecs = Optional.ofNullable(startTimestamp)
-                .map(Instant::getEpochSecond)
-                .orElse(0L);
-        if (startTimeEpochSecs > 0) {
-            final long endTimeEpochSecs = Optional.ofNullable(endTimestamp)
-                    .map(Instant::getEpochSecond)
-                    .orElse(0L);
-            return endTimeEpochSecs - startTimeEpochSecs;
-        } else {
-            return 0;
-        }
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public boolean isSuccess() {
+        return error == null;
     }
 
 }
@@ -1,9 +1,10 @@
 package io.jrb.labs.docasm;
 
 import org.springframework.boot.SpringApplication;
+import org.springframework.boot.actuate.autoconfigure.metrics.r2dbc.ConnectionPoolMetricsAutoConfiguration;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
-@SpringBootApplication
+@SpringBootApplication(exclude = ConnectionPoolMetricsAutoConfiguration.class)
 public class DocasmApplication {
 
 	public static void main(String[] args) {
@@ -28,36 +28,70 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.google.common.collect.ImmutableList;
 import io.jrb.labs.common.h2.H2ConsoleServer;
+import io.jrb.labs.docasm.metrics.QueryMetrics;
+import io.jrb.labs.docasm.repository.LookupCodeConverters;
 import io.jrb.labs.docasm.service.DocumentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import io.r2dbc.h2.H2ConnectionConfiguration;
 import io.r2dbc.h2.H2ConnectionFactory;
-import io.r2dbc.spi.ConnectionFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import org.flywaydb.core.Flyway;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.r2dbc.ConnectionPoolMetrics;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.r2dbc.config.AbstractR2dbcConfiguration;
 import org.springframework.data.r2dbc.convert.R2dbcCustomConversions;
 import org.springframework.data.r2dbc.repository.config.EnableR2dbcRepositories;
-import org.springframework.r2dbc.connection.init.CompositeDatabasePopulator;
-import org.springframework.r2dbc.connection.init.ConnectionFactoryInitializer;
-import org.springframework.r2dbc.connection.init.ResourceDatabasePopulator;
 
 @Configuration
 @EnableR2dbcRepositories
 public class DatabaseJavaConfig extends AbstractR2dbcConfiguration {
 
+    private static final String DATABASE_USERNAME = "sa";
+    private static final String POOL_NAME = "docasm";
+
+    private final DocasmProperties.Database databaseProperties;
+    private final MeterRegistry meterRegistry;
+    private final QueryMetrics queryMetrics;
+
+    public DatabaseJavaConfig(
+            final DocasmProperties docasmProperties,
+            final MeterRegistry meterRegistry,
+            final QueryMetrics queryMetrics
+    ) {
+        this.databaseProperties = docasmProperties.getDatabase();
+        this.meterRegistry = meterRegistry;
+        this.queryMetrics = queryMetrics;
+    }
+
     @Bean
     @Override
-    public H2ConnectionFactory connectionFactory() {
-        return new H2ConnectionFactory(
+    public MeteredConnectionPool connectionFactory() {
+        final H2ConnectionFactory h2ConnectionFactory = new H2ConnectionFactory(
                 H2ConnectionConfiguration.builder()
-                        .url("mem:testdb;DB_CLOSE_DELAY=-1;")
-                        .username("sa")
+                        .url(databaseUrl())
+                        .username(DATABASE_USERNAME)
                         .build()
         );
+
+        final DocasmProperties.Pool pool = databaseProperties.getPool();
+        final ConnectionPool connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(h2ConnectionFactory)
+                .name(POOL_NAME)
+                .initialSize(pool.getInitialSize())
+                .maxSize(pool.getMaxSize())
+                .maxAcquireTime(pool.getMaxAcquireTime())
+                .maxIdleTime(pool.getMaxIdleTime())
+                .validationQuery(pool.getValidationQuery())
+                .build());
+        // bound here rather than by Boot's auto-configuration, which is excluded, so that the gauges are published
+        // once and share the pool name with the acquire timer
+        new ConnectionPoolMetrics(connectionPool, POOL_NAME, Tags.empty()).bindTo(meterRegistry);
+
+        return new MeteredConnectionPool(connectionPool, POOL_NAME, meterRegistry, queryMetrics);
     }
 
     @Bean
@@ -68,21 +102,17 @@ public class DatabaseJavaConfig extends AbstractR2dbcConfiguration {
                 .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
                 .findAndRegisterModules();
         return new R2dbcCustomConversions(getStoreConversions(), ImmutableList.builder()
+                .addAll(LookupCodeConverters.converters())
                 .build());
     }
 
-    @Bean
-    public ConnectionFactoryInitializer schemaInitializer(
-            @Qualifier("connectionFactory") final ConnectionFactory connectionFactory
-    ) {
-        final ConnectionFactoryInitializer initializer = new ConnectionFactoryInitializer();
-        initializer.setConnectionFactory(connectionFactory);
-
-        final CompositeDatabasePopulator populator = new CompositeDatabasePopulator();
-        populator.addPopulators(new ResourceDatabasePopulator(new ClassPathResource("schema.sql")));
-        initializer.setDatabasePopulator(populator);
-
-        return initializer;
+    @Bean(initMethod = "migrate")
+    public Flyway flyway() {
+        return Flyway.configure()
+                .dataSource("jdbc:h2:" + databaseUrl(), DATABASE_USERNAME, "")
+                .locations("classpath:db/migration")
+                .baselineOnMigrate(true)
+                .load();
     }
 
     @Bean
@@ -98,5 +128,17 @@ public class DatabaseJavaConfig extends AbstractR2dbcConfiguration {
         return new H2ConsoleServer(consolePort);
     }
 
-}
+    private String databaseUrl() {
+        if (databaseProperties.getMode() == DocasmProperties.StorageMode.FILE) {
+            return "file:" + databaseProperties.getPath()
+                    + ";DB_CLOSE_DELAY=-1"
+                    + ";CACHE_SIZE=" + databaseProperties.getCacheSizeKb()
+                    + ";WRITE_DELAY=" + databaseProperties.getWriteDelay().toMillis()
+                    + ";MAX_COMPACT_TIME=" + databaseProperties.getMaxCompactTime().toMillis()
+                    + ";AUTO_COMPACT_FILL_RATE=" + databaseProperties.getAutoCompactFillRate();
+        } else {
+            return "mem:" + databaseProperties.getName() + ";DB_CLOSE_DELAY=-1";
+        }
+    }
 
+}
@@ -24,6 +24,8 @@
 package io.jrb.labs.docasm.config;
 
 import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.model.Projection;
+import io.jrb.labs.docasm.resource.DocumentPage;
 import io.jrb.labs.docasm.resource.DocumentResource;
 import io.jrb.labs.docasm.service.DocumentService;
 import lombok.extern.slf4j.Slf4j;
@@ -45,7 +47,14 @@ public class DemoInitializer implements ApplicationListener<ApplicationReadyEven
 
     @Override
     public void onApplicationEvent(final ApplicationReadyEvent event) {
-        log.info("Setting up demo data in in-memory database...");
+        final DocumentPage existing = documentService.listDocuments(null, 1, Projection.SUMMARY)
+                .block(Duration.ofSeconds(10));
+        if (existing != null && !existing.getDocuments().isEmpty()) {
+            log.info("Database already holds documents, skipping demo data");
+            return;
+        }
+
+        log.info("Setting up demo data in empty database...");
 
         Flux.fromIterable(Arrays.asList(
                 DocumentResource.builder().name("Song1").type(DocumentType.SONG_SET_LIST).build(),
@@ -0,0 +1,207 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "docasm")
+public class DocasmProperties {
+
+    private final BulkDelete bulkDelete = new BulkDelete();
+
+    private final BulkImport bulkImport = new BulkImport();
+
+    private final Cache cache = new Cache();
+
+    private final Changes changes = new Changes();
+
+    private final Database database = new Database();
+
+    private final Listing listing = new Listing();
+
+    private final Queries queries = new Queries();
+
+    private final Search search = new Search();
+
+    private final Suggest suggest = new Suggest();
+
+    @Data
+    public static class BulkDelete {
+
+        /** Number of documents deleted per statement, bounding the IN lists sent to the database. */
+        private int chunkSize = 1_000;
+
+    }
+
+    @Data
+    public static class BulkImport {
+
+        /** Number of documents committed per transaction. */
+        private int chunkSize = 100;
+
+        /** Maximum number of chunks imported concurrently, each holding its own connection. */
+        private int concurrency = 4;
+
+    }
+
+    @Data
+    public static class Cache {
+
+        /** Maximum number of guid to document entries held in memory. */
+        private long maximumSize = 10_000;
+
+        /** Time after which an entry is reloaded from the database even if it was not invalidated. */
+        private Duration timeToLive = Duration.ofMinutes(10);
+
+    }
+
+    @Data
+    public static class Changes {
+
+        /** Events buffered per change feed subscriber that reads slower than documents are written. */
+        private int bufferSize = 256;
+
+        /** What happens to a subscriber whose buffer is full. */
+        private ChangeOverflow overflow = ChangeOverflow.DROP_OLDEST;
+
+    }
+
+    @Data
+    public static class Database {
+
+        /** Whether the database lives on the heap or in a file that survives restarts. */
+        private StorageMode mode = StorageMode.MEMORY;
+
+        /** Name of the in-memory database. */
+        private String name = "testdb";
+
+        /** Path of the database file, without the .mv.db suffix, when running in file mode. */
+        private String path = "./data/docasm";
+
+        /** Page cache size in KB for the file-backed store. */
+        private int cacheSizeKb = 64 * 1024;
+
+        /** Delay before committed changes are written to the file; trades durability for commit latency. */
+        private Duration writeDelay = Duration.ofMillis(500);
+
+        /** Time spent compacting the file when the database is closed. */
+        private Duration maxCompactTime = Duration.ofSeconds(1);
+
+        /** Fill rate, in percent, below which the store rewrites chunks in the background. */
+        private int autoCompactFillRate = 90;
+
+        private final Pool pool = new Pool();
+
+    }
+
+    @Data
+    public static class Listing {
+
+        /** Page size used when the client does not ask for one. */
+        private int defaultPageSize = 50;
+
+        /** Upper bound on the page size a client may ask for. */
+        private int maxPageSize = 500;
+
+        /** Rows fetched per keyset query, and request batch size, when streaming the whole listing. */
+        private int fetchSize = 256;
+
+    }
+
+    @Data
+    public static class Queries {
+
+        /** Statements taking longer than this are logged with their bound parameters. */
+        private Duration slowThreshold = Duration.ofMillis(200);
+
+        /** Number of statements listed by the queries management endpoint. */
+        private int topStatements = 20;
+
+        /** Distinct statements tracked for the queries endpoint; statements beyond this only feed the metrics. */
+        private int maxTrackedStatements = 1_000;
+
+        /** Bound values kept per statement for the slow-query log. */
+        private int maxLoggedBindings = 50;
+
+    }
+
+    @Data
+    public static class Search {
+
+        /** Hits returned when the client does not ask for a page size. */
+        private int defaultPageSize = 20;
+
+        /** Upper bound on the page size a client may ask for. */
+        private int maxPageSize = 100;
+
+        /** Upper bound on offset plus page size; deeper pages cost more to collect and are refused. */
+        private int maxResultWindow = 10_000;
+
+    }
+
+    @Data
+    public static class Suggest {
+
+        /** Names kept per trie node, and so the most names a single suggestion request can return. */
+        private int maxSuggestions = 10;
+
+    }
+
+    @Data
+    public static class Pool {
+
+        /** Connections opened when the pool starts. */
+        private int initialSize = 2;
+
+        /** Upper bound on open connections; further acquires wait in the pending queue. */
+        private int maxSize = 10;
+
+        /** How long an acquire may wait for a connection before failing. */
+        private Duration maxAcquireTime = Duration.ofSeconds(5);
+
+        /** Idle connections older than this are evicted. */
+        private Duration maxIdleTime = Duration.ofMinutes(30);
+
+        /** Query run to validate a connection before handing it out. */
+        private String validationQuery = "SELECT 1";
+
+    }
+
+    public enum ChangeOverflow {
+        /** Evict the oldest buffered event; the subscriber misses events but stays connected. */
+        DROP_OLDEST,
+        /** End the subscriber's stream; it reconnects and resynchronises from the listing. */
+        DISCONNECT
+    }
+
+    public enum StorageMode {
+        MEMORY,
+        FILE
+    }
+
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.config;
+
+import io.jrb.labs.docasm.metrics.QueryMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryMetadata;
+import io.r2dbc.spi.Wrapped;
+import reactor.core.publisher.Mono;
+
+/**
+ * Wraps a connection pool to record how long callers wait to acquire a connection, and hands out connections whose
+ * statements are timed by {@link QueryMetrics}.
+ */
+public class MeteredConnectionPool implements ConnectionFactory, Wrapped<ConnectionPool> {
+
+    private final ConnectionPool connectionPool;
+    private final MeterRegistry meterRegistry;
+    private final QueryMetrics queryMetrics;
+    private final Timer acquireTimer;
+
+    public MeteredConnectionPool(
+            final ConnectionPool connectionPool,
+            final String name,
+            final MeterRegistry meterRegistry,
+            final QueryMetrics queryMetrics
+    ) {
+        this.connectionPool = connectionPool;
+        this.meterRegistry = meterRegistry;
+        this.queryMetrics = queryMetrics;
+        this.acquireTimer = Timer.builder("r2dbc.pool.acquire")
+                .description("Time spent waiting to acquire a pooled connection")
+                .tag("name", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Connection> create() {
+        return Mono.defer(() -> {
+            final Timer.Sample sample = Timer.start(meterRegistry);
+            return connectionPool.create()
+                    .doFinally(signal -> sample.stop(acquireTimer))
+                    .map(queryMetrics::instrument);
+        });
+    }
+
+    @Override
+    public ConnectionFactoryMetadata getMetadata() {
+        return connectionPool.getMetadata();
+    }
+
+    @Override
+    public ConnectionPool unwrap() {
+        return connectionPool;
+    }
+
+    public void close() {
+        connectionPool.dispose();
+    }
+
+}
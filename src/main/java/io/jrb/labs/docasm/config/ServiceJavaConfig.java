@@ -24,12 +24,28 @@
 package io.jrb.labs.docasm.config;
 
 import io.jrb.labs.common.module.command.CommandModuleJavaConfig;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Import;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
 
 @Configuration
+@EnableConfigurationProperties(DocasmProperties.class)
 @Import({
         CommandModuleJavaConfig.class
 })
 public class ServiceJavaConfig {
+
+    /**
+     * Delivers change feed events to their subscribers, so that the threads committing document mutations only hand
+     * them over.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler changeFeedScheduler() {
+        return Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE, "change-feed");
+    }
+
 }
@@ -0,0 +1,112 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.index;
+
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.service.DocumentMutation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The version of each document an index reflects, so that mutations published after commit, which may arrive out of
+ * order, are applied at most once and never over a newer one. A deletion is final: the document leaves the map and
+ * is only remembered as a bit of a compressed bitmap, document identifiers never being reused, so the versions held
+ * stay bounded by the live documents that have changed since the last rebuild.
+ */
+final class AppliedVersions {
+
+    private final ConcurrentMap<Integer, Long> versions = new ConcurrentHashMap<>();
+    private final RoaringBitmap deleted = new RoaringBitmap();
+
+    /**
+     * Applies a mutation newer than the version the index reflects, with the document locked; an older mutation,
+     * or any mutation of a deleted document, is ignored.
+     *
+     * @param mutation the mutation
+     * @param change applies the mutation to the index
+     */
+    void apply(final DocumentMutation mutation, final Change change) {
+        final int documentId = Math.toIntExact(mutation.getDocumentId());
+        final boolean deletion = mutation.getType() == DocumentMutation.Type.DELETED;
+        final long version = deletion ? Long.MAX_VALUE : versionOf(mutation.getDocument());
+        versions.compute(documentId, (key, current) -> {
+            if (isDeleted(documentId) || (current != null && version <= current)) {
+                return current;
+            }
+            final boolean follows = current != null && current == previousVersionOf(mutation);
+            final boolean reflected = change.apply(follows);
+            if (deletion) {
+                markDeleted(documentId);
+                return null;
+            }
+            return reflected ? Long.valueOf(version) : current;
+        });
+    }
+
+    int size() {
+        return versions.size();
+    }
+
+    private boolean isDeleted(final int documentId) {
+        synchronized (deleted) {
+            return deleted.contains(documentId);
+        }
+    }
+
+    private void markDeleted(final int documentId) {
+        synchronized (deleted) {
+            deleted.add(documentId);
+        }
+    }
+
+    private static long previousVersionOf(final DocumentMutation mutation) {
+        final Document previous = mutation.getPrevious();
+        if (mutation.getType() == DocumentMutation.Type.DELETED) {
+            return versionOf(previous);
+        }
+        return (previous != null) ? versionOf(previous) : versionOf(mutation.getDocument()) - 1;
+    }
+
+    private static long versionOf(final Document document) {
+        return (document != null && document.getVersion() != null) ? document.getVersion() : 0L;
+    }
+
+    /**
+     * A change to an index, made only for a mutation newer than the version the index reflects.
+     */
+    @FunctionalInterface
+    interface Change {
+
+        /**
+         * @param follows whether the mutation directly follows the version the index reflects, so that its previous
+         *                state is what the index holds
+         * @return whether the index now reflects the version the mutation brings the document to
+         */
+        boolean apply(boolean follows);
+
+    }
+
+}
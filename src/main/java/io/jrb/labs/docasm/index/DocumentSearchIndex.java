@@ -0,0 +1,421 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.index;
+
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.resource.DocumentSearchHit;
+import io.jrb.labs.docasm.resource.DocumentSearchPage;
+import io.jrb.labs.docasm.service.DocumentMutation;
+import io.jrb.labs.docasm.service.DocumentMutationListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Embedded Lucene index over document names and section names, held in memory. It is loaded before the application
+ * accepts traffic, then follows committed document mutations through near-real-time readers.
+ * <p>
+ * A rebuild loads a fresh index while the current one keeps serving queries and taking mutations; mutations received
+ * meanwhile are replayed onto the fresh index before it replaces the current one. Replaying is safe because every
+ * write replaces or deletes the document by identifier. Mutations may also arrive out of order, so each index
+ * generation ignores a mutation older than the version it holds for the document, and any mutation of a deleted
+ * document. Queries hold a reference on the index they read, so a replaced index is only closed once its last query
+ * is done.
+ * <p>
+ * Readers are reopened by a background thread rather than by queries, so a burst of writes never puts the reopen cost
+ * on the query path; a committed change becomes searchable within {@link #MAX_STALE_SECONDS}.
+ */
+@Component
+@Slf4j
+public class DocumentSearchIndex implements DocumentMutationListener, SmartInitializingSingleton, DisposableBean {
+
+    private static final String ID = "id";
+    private static final String GUID = "guid";
+    private static final String TYPE = "type";
+    private static final String NAME = "name";
+    private static final String SECTION = "section";
+
+    private static final Map<String, Float> FIELD_WEIGHTS = Map.of(NAME, 2.0f, SECTION, 1.0f);
+
+    private static final String LOAD_SQL = "SELECT do_id, do_guid, do_name, do_type, ds_name"
+            + " FROM t_document LEFT JOIN t_document_section ON ds_do_id = do_id"
+            + " ORDER BY do_id, ds_id";
+
+    private static final Duration LOAD_TIMEOUT = Duration.ofMinutes(10);
+
+    static final double MAX_STALE_SECONDS = 1.0;
+    static final double MIN_STALE_SECONDS = 0.1;
+
+    private final DatabaseClient databaseClient;
+    private final Analyzer analyzer = new StandardAnalyzer();
+    private final Timer rebuildTimer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Queue<DocumentMutation> pending = new ConcurrentLinkedQueue<>();
+    private volatile Index index = new Index(analyzer);
+    private volatile boolean rebuilding;
+    private volatile Instant rebuiltOn;
+    private volatile Duration rebuildTime;
+
+    public DocumentSearchIndex(final DatabaseClient databaseClient, final MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.rebuildTimer = Timer.builder("documents.search.index.rebuild")
+                .description("Time taken to rebuild the search index from the database")
+                .register(meterRegistry);
+        Gauge.builder("documents.search.index.documents", this, search -> search.statistics().getDocuments())
+                .description("Documents in the search index")
+                .register(meterRegistry);
+        Gauge.builder("documents.search.index.memory", this, search -> search.statistics().getMemoryBytes())
+                .description("Heap held by the search index files")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    @Override
+    public void destroy() {
+        index.release();
+    }
+
+    @Override
+    public void onMutation(final DocumentMutation mutation) {
+        if (mutation.getType() != DocumentMutation.Type.DELETED && mutation.getSectionNames() == null) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            if (rebuilding) {
+                pending.add(mutation);
+            }
+            index.apply(mutation);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads the whole index from the database and swaps it in.
+     *
+     * @return the statistics of the rebuilt index
+     */
+    public synchronized SearchIndexStatistics rebuild() {
+        final long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            pending.clear();
+            rebuilding = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        final Index fresh = new Index(analyzer);
+        final Index previous;
+        try {
+            databaseClient.sql(LOAD_SQL)
+                    .map((row, metadata) -> new IndexRow(
+                            row.get("do_id", Number.class).longValue(),
+                            row.get("do_guid", UUID.class),
+                            row.get("do_name", String.class),
+                            row.get("do_type", String.class),
+                            row.get("ds_name", String.class)
+                    ))
+                    .all()
+                    .bufferUntilChanged(IndexRow::getDocumentId)
+                    .doOnNext(fresh::add)
+                    .blockLast(LOAD_TIMEOUT);
+            fresh.refresh();
+        } catch (final RuntimeException ex) {
+            rebuilding = false;
+            fresh.release();
+            throw ex;
+        }
+
+        lock.writeLock().lock();
+        try {
+            DocumentMutation mutation;
+            while ((mutation = pending.poll()) != null) {
+                fresh.apply(mutation);
+            }
+            fresh.refresh();
+            previous = index;
+            index = fresh;
+            rebuilding = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        previous.release();
+
+        final long elapsed = System.nanoTime() - start;
+        rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        rebuiltOn = Instant.now();
+        rebuildTime = Duration.ofNanos(elapsed);
+        log.info("Rebuilt search index with {} documents in {} ms",
+                fresh.documentCount(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return statistics();
+    }
+
+    /**
+     * Runs a ranked query over document names, which weigh double, and section names. The query uses the simple
+     * query syntax: terms are required, and {@code |}, {@code -}, quotes and a trailing {@code *} are supported.
+     *
+     * @param text the query
+     * @param offset the number of hits to skip
+     * @param limit the maximum number of hits to return
+     * @return the page of hits by descending score
+     */
+    public DocumentSearchPage search(final String text, final int offset, final int limit) {
+        final SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_WEIGHTS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        final Query query = parser.parse(text);
+
+        final Index current = acquireIndex();
+        final SearcherManager searcherManager = current.searcherManager;
+        try {
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                final TopDocs topDocs = searcher.search(query, offset + limit);
+                final DocumentSearchPage.DocumentSearchPageBuilder page = DocumentSearchPage.builder()
+                        .total(topDocs.totalHits.value)
+                        .totalExact(topDocs.totalHits.relation == TotalHits.Relation.EQUAL_TO);
+                final ScoreDoc[] scoreDocs = topDocs.scoreDocs;
+                for (int i = offset; i < scoreDocs.length; i++) {
+                    final Document document = searcher.doc(scoreDocs[i].doc);
+                    page.hit(DocumentSearchHit.builder()
+                            .guid(UUID.fromString(document.get(GUID)))
+                            .name(document.get(NAME))
+                            .type(DocumentType.valueOf(document.get(TYPE)))
+                            .score(scoreDocs[i].score)
+                            .build());
+                }
+                if (topDocs.totalHits.value > offset + limit) {
+                    page.nextOffset(offset + limit);
+                }
+                return page.build();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            current.release();
+        }
+    }
+
+    public SearchIndexStatistics statistics() {
+        final Index current = acquireIndex();
+        try {
+            return SearchIndexStatistics.builder()
+                    .documents(current.documentCount())
+                    .memoryBytes(current.directory.ramBytesUsed())
+                    .rebuiltOn(rebuiltOn)
+                    .rebuildTime(rebuildTime)
+                    .build();
+        } finally {
+            current.release();
+        }
+    }
+
+    private Index acquireIndex() {
+        while (true) {
+            final Index current = index;
+            if (current.tryAcquire()) {
+                return current;
+            }
+            // the index was swapped out and closed since it was read; the next read sees its replacement
+        }
+    }
+
+    private static Document toDocument(
+            final long documentId,
+            final UUID guid,
+            final String name,
+            final String type,
+            final List<String> sectionNames
+    ) {
+        final Document document = new Document();
+        document.add(new StringField(ID, Long.toString(documentId), Field.Store.NO));
+        document.add(new StoredField(GUID, guid.toString()));
+        document.add(new StoredField(TYPE, type));
+        document.add(new TextField(NAME, name, Field.Store.YES));
+        sectionNames.forEach(sectionName -> document.add(new TextField(SECTION, sectionName, Field.Store.NO)));
+        return document;
+    }
+
+    /**
+     * One generation of the index. It starts with a single reference held by its owner; queries take their own, and
+     * the index closes when the owner and the last query have released theirs.
+     */
+    private static final class Index implements Closeable {
+
+        private final ByteBuffersDirectory directory = new ByteBuffersDirectory();
+        private final IndexWriter writer;
+        private final SearcherManager searcherManager;
+        private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+        private final AtomicInteger references = new AtomicInteger(1);
+        private final AppliedVersions appliedVersions = new AppliedVersions();
+
+        private Index(final Analyzer analyzer) {
+            try {
+                this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+                this.searcherManager = new SearcherManager(writer, null);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            this.reopenThread = new ControlledRealTimeReopenThread<>(writer, searcherManager,
+                    MAX_STALE_SECONDS, MIN_STALE_SECONDS);
+            reopenThread.setName("search-index-reopen");
+            reopenThread.setDaemon(true);
+            reopenThread.start();
+        }
+
+        private boolean tryAcquire() {
+            int count;
+            do {
+                count = references.get();
+                if (count == 0) {
+                    return false;
+                }
+            } while (!references.compareAndSet(count, count + 1));
+            return true;
+        }
+
+        private void release() {
+            if (references.decrementAndGet() == 0) {
+                close();
+            }
+        }
+
+        private void add(final List<IndexRow> rows) {
+            final IndexRow first = rows.get(0);
+            final List<String> sectionNames = rows.stream()
+                    .map(IndexRow::getSectionName)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+            try {
+                writer.addDocument(toDocument(first.getDocumentId(), first.getGuid(), first.getName(),
+                        first.getType(), sectionNames));
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        private void apply(final DocumentMutation mutation) {
+            final Term id = new Term(ID, Long.toString(mutation.getDocumentId()));
+            appliedVersions.apply(mutation, follows -> {
+                try {
+                    if (mutation.getType() == DocumentMutation.Type.DELETED) {
+                        writer.deleteDocuments(id);
+                    } else {
+                        writer.updateDocument(id, toDocument(mutation.getDocumentId(), mutation.getGuid(),
+                                mutation.getDocument().getName(), mutation.getDocument().getType().name(),
+                                mutation.getSectionNames()));
+                    }
+                } catch (final IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                return true;
+            });
+        }
+
+        private long documentCount() {
+            return writer.getDocStats().numDocs;
+        }
+
+        private void refresh() {
+            try {
+                searcherManager.maybeRefreshBlocking();
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                reopenThread.close();
+                searcherManager.close();
+                writer.close();
+            } catch (final IOException ex) {
+                log.warn("Failed to close search index - {}", ex.getMessage());
+            }
+        }
+
+    }
+
+    @Value
+    private static class IndexRow {
+        long documentId;
+        UUID guid;
+        String name;
+        String type;
+        String sectionName;
+    }
+
+}
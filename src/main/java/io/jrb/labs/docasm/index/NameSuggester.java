@@ -0,0 +1,217 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.index;
+
+import io.jrb.labs.docasm.config.DocasmProperties;
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.resource.DocumentNameSuggestion;
+import io.jrb.labs.docasm.service.DocumentMutation;
+import io.jrb.labs.docasm.service.DocumentMutationListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * Prefix suggestions over document names, ranked by the most recent modification of a document with the name. The
+ * names are loaded once before the application accepts traffic, then follow committed document mutations.
+ * <p>
+ * Mutations may arrive out of order, so a mutation older than the last one applied to its document, or any mutation
+ * of a deleted document, is ignored, and the name counted for each document changed since the load is remembered:
+ * a mutation that skips a version replaces the name actually counted rather than the one it reports as previous.
+ */
+@Component
+@Slf4j
+public class NameSuggester implements DocumentMutationListener, SmartInitializingSingleton {
+
+    private static final String LOAD_SQL = "SELECT do_name, COUNT(*) AS documents, MAX(do_modified_on) AS modified_on"
+            + " FROM t_document GROUP BY do_name";
+
+    private static final Duration LOAD_TIMEOUT = Duration.ofMinutes(5);
+
+    private final DatabaseClient databaseClient;
+    private final int maxSuggestions;
+    private final Timer rebuildTimer;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private NameTrie trie;
+    private AppliedVersions appliedVersions = new AppliedVersions();
+    private Map<Long, String> countedNames = new HashMap<>();
+
+    public NameSuggester(
+            final DatabaseClient databaseClient,
+            final DocasmProperties docasmProperties,
+            final MeterRegistry meterRegistry
+    ) {
+        this.databaseClient = databaseClient;
+        this.maxSuggestions = docasmProperties.getSuggest().getMaxSuggestions();
+        this.trie = new NameTrie(maxSuggestions);
+        this.rebuildTimer = Timer.builder("documents.suggest.index.rebuild")
+                .description("Time taken to load the name suggestions from the database")
+                .register(meterRegistry);
+        Gauge.builder("documents.suggest.index.memory", this, NameSuggester::estimateBytes)
+                .description("Estimated heap held by the name suggestion trie")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("documents.suggest.index.names", this, NameSuggester::nameCount)
+                .description("Distinct names in the name suggestion trie")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    @Override
+    public void onMutation(final DocumentMutation mutation) {
+        final long documentId = mutation.getDocumentId();
+        final Document previous = mutation.getPrevious();
+        final Document document = mutation.getDocument();
+        lock.writeLock().lock();
+        try {
+            appliedVersions.apply(mutation, follows -> {
+                final String counted = countedNames.containsKey(documentId)
+                        ? countedNames.get(documentId)
+                        : (previous != null) ? previous.getName() : null;
+                if (document == null) {
+                    if (counted != null) {
+                        trie.remove(counted);
+                    }
+                    countedNames.remove(documentId);
+                    return true;
+                }
+                if (mutation.getType() == DocumentMutation.Type.CREATED) {
+                    trie.add(document.getName(), epochMilli(document.getModifiedOn()));
+                } else if (counted != null && !counted.equals(document.getName())) {
+                    trie.remove(counted);
+                    trie.add(document.getName(), epochMilli(document.getModifiedOn()));
+                } else {
+                    trie.touch(document.getName(), epochMilli(document.getModifiedOn()));
+                }
+                countedNames.put(documentId, document.getName());
+                return true;
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Reloads every name from the database, replacing the suggestions in one step once loaded.
+     */
+    public void rebuild() {
+        final long start = System.nanoTime();
+        final NameTrie loaded = new NameTrie(maxSuggestions);
+        databaseClient.sql(LOAD_SQL)
+                .fetch()
+                .all()
+                .doOnNext(row -> loaded.load(
+                        (String) row.get("do_name"),
+                        ((Number) row.get("documents")).intValue(),
+                        epochMilli((LocalDateTime) row.get("modified_on"))
+                ))
+                .blockLast(LOAD_TIMEOUT);
+        loaded.rank();
+
+        lock.writeLock().lock();
+        try {
+            trie = loaded;
+            appliedVersions = new AppliedVersions();
+            countedNames = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        final long elapsed = System.nanoTime() - start;
+        rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Loaded {} document names for suggestions in {} ms",
+                loaded.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /**
+     * Finds the best document names starting with the given prefix, ignoring case.
+     *
+     * @param prefix the prefix
+     * @param limit the maximum number of names, capped by the configured maximum
+     * @return the names, most recently modified first
+     */
+    public List<DocumentNameSuggestion> suggest(final String prefix, final int limit) {
+        lock.readLock().lock();
+        try {
+            return trie.suggest(prefix, Math.min(limit, maxSuggestions)).stream()
+                    .map(entry -> DocumentNameSuggestion.builder()
+                            .name(entry.getName())
+                            .documents(entry.getDocuments())
+                            .lastModified(Instant.ofEpochMilli(entry.getLastModified()))
+                            .build())
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double estimateBytes() {
+        lock.readLock().lock();
+        try {
+            return trie.estimateBytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private double nameCount() {
+        lock.readLock().lock();
+        try {
+            return trie.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static long epochMilli(final Instant instant) {
+        return Optional.ofNullable(instant).map(Instant::toEpochMilli).orElse(0L);
+    }
+
+    private static long epochMilli(final LocalDateTime localDateTime) {
+        return Optional.ofNullable(localDateTime)
+                .map(value -> value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli())
+                .orElse(0L);
+    }
+
+}
@@ -0,0 +1,379 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Radix trie over lower-cased names in which every node keeps the best {@code k} names below it, so that a prefix
+ * lookup costs one walk down the prefix whatever the number of names. Names rank by most recent modification, then
+ * alphabetically. Spellings that differ only by case share a node but keep their own entry and document count, so
+ * each is suggested exactly as long as a document has it. Not thread-safe.
+ */
+final class NameTrie {
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Entry[] NO_ENTRIES = new Entry[0];
+
+    private static final Comparator<Entry> RANKING = Comparator.comparingLong((Entry entry) -> entry.lastModified)
+            .reversed()
+            .thenComparing(entry -> entry.name);
+
+    private final int k;
+    private final Node root = new Node("");
+    private int size;
+
+    NameTrie(final int k) {
+        this.k = k;
+    }
+
+    /**
+     * Counts one more document with the given name.
+     *
+     * @param name the document name
+     * @param lastModified the modification time of the document, in epoch milliseconds
+     */
+    void add(final String name, final long lastModified) {
+        add(name, 1, lastModified);
+    }
+
+    /**
+     * Counts more documents with the given name, without reranking; {@link #rank()} must follow a series of loads.
+     */
+    void load(final String name, final int documents, final long lastModified) {
+        final List<Node> path = insert(key(name));
+        attach(path.get(path.size() - 1), name, documents, lastModified);
+    }
+
+    /**
+     * Ranks every node from scratch, after names were loaded.
+     */
+    void rank() {
+        rank(root);
+    }
+
+    /**
+     * Counts one less document with the given name, dropping the name once no document has it.
+     */
+    void remove(final String name) {
+        final List<Node> path = find(key(name));
+        if (path == null) {
+            return;
+        }
+        final Node node = path.get(path.size() - 1);
+        final Entry entry = node.entry(name);
+        if (entry == null || --entry.documents > 0) {
+            return;
+        }
+        node.removeEntry(entry);
+        size--;
+        compact(path);
+        for (int i = path.size() - 1; i >= 0; i--) {
+            rankNode(path.get(i));
+        }
+    }
+
+    /**
+     * Marks a name as modified at the given time, moving it up the rankings.
+     */
+    void touch(final String name, final long lastModified) {
+        final List<Node> path = find(key(name));
+        final Entry entry = (path != null) ? path.get(path.size() - 1).entry(name) : null;
+        if (entry != null) {
+            entry.lastModified = Math.max(entry.lastModified, lastModified);
+            for (int i = path.size() - 1; i >= 0; i--) {
+                rankNode(path.get(i));
+            }
+        }
+    }
+
+    /**
+     * Finds the best names starting with the given prefix, ignoring case.
+     */
+    List<Entry> suggest(final String prefix, final int limit) {
+        final String key = key(prefix);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            final int index = node.childIndex(key.charAt(i));
+            if (index < 0) {
+                return List.of();
+            }
+            final Node child = node.children[index];
+            final int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length() && i + common < key.length()) {
+                return List.of();
+            }
+            node = child;
+            i += common;
+        }
+        return List.of(node.top).subList(0, Math.min(limit, node.top.length));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Estimates the heap held by the trie, assuming compressed references and compact strings.
+     */
+    long estimateBytes() {
+        return estimateBytes(root);
+    }
+
+    private void add(final String name, final int documents, final long lastModified) {
+        final List<Node> path = insert(key(name));
+        attach(path.get(path.size() - 1), name, documents, lastModified);
+        for (int i = path.size() - 1; i >= 0; i--) {
+            rankNode(path.get(i));
+        }
+    }
+
+    private void attach(final Node node, final String name, final int documents, final long lastModified) {
+        Entry entry = node.entry(name);
+        if (entry == null) {
+            entry = new Entry(name);
+            node.addEntry(entry);
+            size++;
+        }
+        entry.documents += documents;
+        entry.lastModified = Math.max(entry.lastModified, lastModified);
+    }
+
+    /**
+     * Removes the nodes left without a name or children at the end of the path, and merges a nameless node with its
+     * only child.
+     */
+    private void compact(final List<Node> path) {
+        for (int i = path.size() - 1; i > 0; i--) {
+            final Node node = path.get(i);
+            final Node parent = path.get(i - 1);
+            if (node.entries.length > 0) {
+                return;
+            } else if (node.children.length == 0) {
+                parent.removeChild(node);
+            } else if (node.children.length == 1) {
+                final Node child = node.children[0];
+                child.label = node.label + child.label;
+                parent.replaceChild(node, child);
+                return;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private List<Node> find(final String key) {
+        final List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            final int index = node.childIndex(key.charAt(i));
+            if (index < 0) {
+                return null;
+            }
+            node = node.children[index];
+            if (!key.startsWith(node.label, i)) {
+                return null;
+            }
+            path.add(node);
+            i += node.label.length();
+        }
+        return path;
+    }
+
+    private List<Node> insert(final String key) {
+        final List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int i = 0;
+        while (i < key.length()) {
+            final int index = node.childIndex(key.charAt(i));
+            if (index < 0) {
+                final Node child = new Node(key.substring(i));
+                node.addChild(child);
+                path.add(child);
+                return path;
+            }
+            Node child = node.children[index];
+            final int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                final Node split = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                split.children = new Node[] { child };
+                split.top = child.top;
+                node.children[index] = split;
+                child = split;
+            }
+            path.add(child);
+            node = child;
+            i += common;
+        }
+        return path;
+    }
+
+    private void rank(final Node node) {
+        for (final Node child : node.children) {
+            rank(child);
+        }
+        rankNode(node);
+    }
+
+    private void rankNode(final Node node) {
+        final List<Entry> candidates = new ArrayList<>(Arrays.asList(node.entries));
+        for (final Node child : node.children) {
+            candidates.addAll(Arrays.asList(child.top));
+        }
+        candidates.sort(RANKING);
+        node.top = candidates.subList(0, Math.min(k, candidates.size())).toArray(NO_ENTRIES);
+    }
+
+    private static int commonPrefix(final String label, final String key, final int offset) {
+        final int max = Math.min(label.length(), key.length() - offset);
+        int i = 0;
+        while (i < max && label.charAt(i) == key.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static long estimateBytes(final Node node) {
+        long bytes = 32 + stringBytes(node.label) + 16 + 4L * node.children.length + 16 + 4L * node.top.length;
+        bytes += 16 + 4L * node.entries.length;
+        for (final Entry entry : node.entries) {
+            bytes += 32 + stringBytes(entry.name);
+        }
+        for (final Node child : node.children) {
+            bytes += estimateBytes(child);
+        }
+        return bytes;
+    }
+
+    private static String key(final String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static long stringBytes(final String value) {
+        return 24 + 16 + value.length();
+    }
+
+    static final class Entry {
+
+        private final String name;
+        private int documents;
+        private long lastModified;
+
+        private Entry(final String name) {
+            this.name = name;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        int getDocuments() {
+            return documents;
+        }
+
+        long getLastModified() {
+            return lastModified;
+        }
+
+    }
+
+    private static final class Node {
+
+        private String label;
+        private Node[] children = NO_CHILDREN;
+        private Entry[] entries = NO_ENTRIES;
+        private Entry[] top = NO_ENTRIES;
+
+        private Node(final String label) {
+            this.label = label;
+        }
+
+        private void addEntry(final Entry entry) {
+            entries = Arrays.copyOf(entries, entries.length + 1);
+            entries[entries.length - 1] = entry;
+        }
+
+        private Entry entry(final String name) {
+            for (final Entry entry : entries) {
+                if (entry.name.equals(name)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+
+        private void removeEntry(final Entry entry) {
+            entries = Arrays.stream(entries).filter(other -> other != entry).toArray(Entry[]::new);
+        }
+
+        private void addChild(final Node child) {
+            final int insertAt = -(childIndex(child.label.charAt(0)) + 1);
+            final Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, insertAt);
+            grown[insertAt] = child;
+            System.arraycopy(children, insertAt, grown, insertAt + 1, children.length - insertAt);
+            children = grown;
+        }
+
+        private int childIndex(final char first) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final char midFirst = children[mid].label.charAt(0);
+                if (midFirst < first) {
+                    low = mid + 1;
+                } else if (midFirst > first) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        private void removeChild(final Node child) {
+            final int index = childIndex(child.label.charAt(0));
+            final Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, index);
+            System.arraycopy(children, index + 1, shrunk, index, children.length - index - 1);
+            children = shrunk;
+        }
+
+        private void replaceChild(final Node child, final Node replacement) {
+            children[childIndex(child.label.charAt(0))] = replacement;
+        }
+
+    }
+
+}
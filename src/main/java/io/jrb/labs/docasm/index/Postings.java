@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.index;
+
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The documents carrying one indexed value, as a compressed bitmap guarded by its own monitor, together with a
+ * counter that can be read without locking. The counter only moves when the bitmap actually changes, so it stays
+ * equal to the bitmap cardinality under concurrent writes.
+ */
+final class Postings {
+
+    private final RoaringBitmap documents;
+    private final LongAdder count = new LongAdder();
+
+    Postings() {
+        this(new RoaringBitmap());
+    }
+
+    Postings(final RoaringBitmap documents) {
+        this.documents = documents;
+        this.count.add(documents.getLongCardinality());
+    }
+
+    void add(final int documentId) {
+        final boolean added;
+        synchronized (this) {
+            added = documents.checkedAdd(documentId);
+        }
+        if (added) {
+            count.increment();
+        }
+    }
+
+    void remove(final int documentId) {
+        final boolean removed;
+        synchronized (this) {
+            removed = documents.checkedRemove(documentId);
+        }
+        if (removed) {
+            count.decrement();
+        }
+    }
+
+    long count() {
+        return count.sum();
+    }
+
+    synchronized long countWithin(final RoaringBitmap scope) {
+        return RoaringBitmap.andCardinality(documents, scope);
+    }
+
+    synchronized RoaringBitmap snapshot() {
+        return documents.clone();
+    }
+
+    synchronized long sizeInBytes() {
+        return documents.getLongSizeInBytes();
+    }
+
+}
@@ -0,0 +1,223 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.index;
+
+import io.jrb.labs.docasm.model.EntityType;
+import io.jrb.labs.docasm.model.LookupValueType;
+import io.jrb.labs.docasm.service.DocumentMutation;
+import io.jrb.labs.docasm.service.DocumentMutationListener;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inverted index from tag to the compressed bitmap of the identifiers of the documents carrying it, with a document
+ * count per tag for facets. The index is loaded from the lookup values before the application accepts traffic, and
+ * then follows committed document mutations. Each tag is locked on its own, so writers touching different tags
+ * never wait for each other. Document identifiers are SERIAL, so they always fit the 32-bit bitmaps.
+ * <p>
+ * Mutations are published after commit and may arrive out of order, so the index remembers, per document, the
+ * version its postings reflect: an older mutation is ignored, and a mutation removes a document only from the
+ * postings of its previous tags when it directly follows the remembered version, walking every tag otherwise.
+ * Document deletions are final, so a late update of a deleted document is ignored.
+ */
+@Component
+@Slf4j
+public class TagIndex implements DocumentMutationListener, SmartInitializingSingleton {
+
+    static final String LOAD_SQL = "SELECT lv_entity_id, ld_value FROM t_lookup_value"
+            + " JOIN t_lookup_dictionary ON ld_id = lv_value_id"
+            + " WHERE lv_entity_type = :entityType AND lv_value_type = :valueType";
+
+    private static final Duration LOAD_TIMEOUT = Duration.ofMinutes(5);
+
+    private final DatabaseClient databaseClient;
+    private final Timer rebuildTimer;
+    private volatile ConcurrentMap<String, Postings> postings = new ConcurrentHashMap<>();
+    private volatile AppliedVersions appliedVersions = new AppliedVersions();
+
+    public TagIndex(final DatabaseClient databaseClient, final MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.rebuildTimer = Timer.builder("documents.tags.index.rebuild")
+                .description("Time taken to load the tag index from the database")
+                .register(meterRegistry);
+        Gauge.builder("documents.tags.index.memory", this, TagIndex::sizeInBytes)
+                .description("Serialized size of the tag index bitmaps")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("documents.tags.index.tags", this, index -> index.postings.size())
+                .description("Distinct tags in the tag index")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Counts the documents carrying each tag, without locking.
+     *
+     * @return the document count by tag, leaving out tags no document carries any more
+     */
+    public Map<String, Long> counts() {
+        final Map<String, Long> counts = new HashMap<>();
+        postings.forEach((tag, tagPostings) -> {
+            final long count = tagPostings.count();
+            if (count > 0) {
+                counts.put(tag, count);
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Counts the documents carrying each tag among the given documents.
+     *
+     * @param scope the identifiers of the documents to count
+     * @return the document count by tag, leaving out tags no document in scope carries
+     */
+    public Map<String, Long> counts(final RoaringBitmap scope) {
+        final Map<String, Long> counts = new HashMap<>();
+        postings.forEach((tag, tagPostings) -> {
+            final long count = tagPostings.countWithin(scope);
+            if (count > 0) {
+                counts.put(tag, count);
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Finds the documents carrying all or any of the given tags.
+     *
+     * @param tags the tags
+     * @param match how the tags combine
+     * @return a bitmap of matching document identifiers, owned by the caller
+     */
+    public RoaringBitmap match(final Collection<String> tags, final TagMatch match) {
+        final List<RoaringBitmap> matched = new ArrayList<>(tags.size());
+        for (final String tag : tags) {
+            final Postings tagPostings = postings.get(tag);
+            if (tagPostings != null) {
+                matched.add(tagPostings.snapshot());
+            } else if (match == TagMatch.ALL) {
+                return new RoaringBitmap();
+            }
+        }
+        if (matched.isEmpty()) {
+            return new RoaringBitmap();
+        } else if (matched.size() == 1) {
+            return matched.get(0);
+        } else {
+            return (match == TagMatch.ALL)
+                    ? FastAggregation.and(matched.iterator())
+                    : FastAggregation.or(matched.iterator());
+        }
+    }
+
+    @Override
+    public void onMutation(final DocumentMutation mutation) {
+        final DocumentMutation.Type type = mutation.getType();
+        final int documentId = Math.toIntExact(mutation.getDocumentId());
+        final ConcurrentMap<String, Postings> current = postings;
+        appliedVersions.apply(mutation, follows -> {
+            if (type == DocumentMutation.Type.UPDATED && mutation.getTags() == null) {
+                // the tags did not change, so the postings reflect this version only if they reflected the last one
+                return follows;
+            }
+            if (type != DocumentMutation.Type.CREATED) {
+                if (follows && mutation.getPreviousTags() != null) {
+                    mutation.getPreviousTags().forEach(tag -> {
+                        final Postings tagPostings = current.get(tag);
+                        if (tagPostings != null) {
+                            tagPostings.remove(documentId);
+                        }
+                    });
+                } else {
+                    current.values().forEach(tagPostings -> tagPostings.remove(documentId));
+                }
+            }
+            if (mutation.getTags() != null) {
+                new LinkedHashSet<>(mutation.getTags()).forEach(tag -> current
+                        .computeIfAbsent(tag, tagKey -> new Postings())
+                        .add(documentId));
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Reloads the whole index from the database, replacing it in one step once loaded. The tag counts are
+     * reconciled with the loaded bitmaps.
+     */
+    public void rebuild() {
+        final long start = System.nanoTime();
+        final Map<String, RoaringBitmap> loaded = databaseClient.sql(LOAD_SQL)
+                .bind("entityType", EntityType.DOCUMENT.getCode())
+                .bind("valueType", LookupValueType.TAG.getCode())
+                .map((row, metadata) -> Map.entry(
+                        row.get("ld_value", String.class),
+                        row.get("lv_entity_id", Number.class).intValue()
+                ))
+                .all()
+                .collect(HashMap<String, RoaringBitmap>::new, (map, entry) -> map
+                        .computeIfAbsent(entry.getKey(), key -> new RoaringBitmap())
+                        .add(entry.getValue()))
+                .block(LOAD_TIMEOUT);
+        final ConcurrentMap<String, Postings> rebuilt = new ConcurrentHashMap<>(loaded.size());
+        loaded.forEach((tag, bitmap) -> {
+            bitmap.runOptimize();
+            rebuilt.put(tag, new Postings(bitmap));
+        });
+        postings = rebuilt;
+        appliedVersions = new AppliedVersions();
+
+        final long elapsed = System.nanoTime() - start;
+        rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Loaded tag index with {} tags in {} ms", loaded.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private double sizeInBytes() {
+        return postings.values().stream().mapToLong(Postings::sizeInBytes).sum();
+    }
+
+}
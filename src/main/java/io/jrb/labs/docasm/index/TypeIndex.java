@@ -0,0 +1,153 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.index;
+
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.service.DocumentMutation;
+import io.jrb.labs.docasm.service.DocumentMutationListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bitmap of the identifiers of the documents of each type, with a document count per type for facets. Loaded
+ * before the application accepts traffic, then follows committed document mutations; each type is locked on its
+ * own. Mutations may arrive out of order, so a mutation older than the version the index reflects for its document,
+ * or any mutation of a deleted document, is ignored.
+ */
+@Component
+@Slf4j
+public class TypeIndex implements DocumentMutationListener, SmartInitializingSingleton {
+
+    private static final String LOAD_SQL = "SELECT do_id, do_type FROM t_document";
+
+    private static final Duration LOAD_TIMEOUT = Duration.ofMinutes(5);
+
+    private final DatabaseClient databaseClient;
+    private final Timer rebuildTimer;
+    private volatile Map<DocumentType, Postings> postings = emptyPostings();
+    private volatile AppliedVersions appliedVersions = new AppliedVersions();
+
+    public TypeIndex(final DatabaseClient databaseClient, final MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        this.rebuildTimer = Timer.builder("documents.types.index.rebuild")
+                .description("Time taken to load the type index from the database")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        rebuild();
+    }
+
+    /**
+     * Counts the documents of each type, without locking.
+     */
+    public Map<DocumentType, Long> counts() {
+        final Map<DocumentType, Long> counts = new EnumMap<>(DocumentType.class);
+        postings.forEach((type, typePostings) -> counts.put(type, typePostings.count()));
+        return counts;
+    }
+
+    /**
+     * Counts the documents of each type among the given documents.
+     */
+    public Map<DocumentType, Long> counts(final RoaringBitmap scope) {
+        final Map<DocumentType, Long> counts = new EnumMap<>(DocumentType.class);
+        postings.forEach((type, typePostings) -> counts.put(type, typePostings.countWithin(scope)));
+        return counts;
+    }
+
+    @Override
+    public void onMutation(final DocumentMutation mutation) {
+        final int documentId = Math.toIntExact(mutation.getDocumentId());
+        final Map<DocumentType, Postings> current = postings;
+        final Document previous = mutation.getPrevious();
+        final Document document = mutation.getDocument();
+        appliedVersions.apply(mutation, follows -> {
+            if (follows && previous != null && document != null && previous.getType() == document.getType()) {
+                return true;
+            }
+            if (follows && previous != null && previous.getType() != null) {
+                current.get(previous.getType()).remove(documentId);
+            } else if (mutation.getType() != DocumentMutation.Type.CREATED) {
+                current.values().forEach(typePostings -> typePostings.remove(documentId));
+            }
+            if (document != null) {
+                current.get(document.getType()).add(documentId);
+            }
+            return true;
+        });
+    }
+
+    /**
+     * Reloads the whole index from the database, replacing it in one step once loaded. The type counts are
+     * reconciled with the loaded bitmaps.
+     */
+    public void rebuild() {
+        final long start = System.nanoTime();
+        final Map<DocumentType, RoaringBitmap> loaded = new EnumMap<>(DocumentType.class);
+        for (final DocumentType type : DocumentType.values()) {
+            loaded.put(type, new RoaringBitmap());
+        }
+        databaseClient.sql(LOAD_SQL)
+                .map((row, metadata) -> Map.entry(
+                        DocumentType.valueOf(row.get("do_type", String.class)),
+                        row.get("do_id", Number.class).intValue()
+                ))
+                .all()
+                .doOnNext(entry -> loaded.get(entry.getKey()).add(entry.getValue()))
+                .blockLast(LOAD_TIMEOUT);
+        final Map<DocumentType, Postings> rebuilt = new EnumMap<>(DocumentType.class);
+        loaded.forEach((type, bitmap) -> {
+            bitmap.runOptimize();
+            rebuilt.put(type, new Postings(bitmap));
+        });
+        postings = rebuilt;
+        appliedVersions = new AppliedVersions();
+
+        final long elapsed = System.nanoTime() - start;
+        rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Loaded type index in {} ms", TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    private static Map<DocumentType, Postings> emptyPostings() {
+        final Map<DocumentType, Postings> empty = new EnumMap<>(DocumentType.class);
+        for (final DocumentType type : DocumentType.values()) {
+            empty.put(type, new Postings());
+        }
+        return empty;
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.metrics;
+
+import io.jrb.labs.docasm.config.DocasmProperties;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Lists the slowest statements seen since startup, by maximum latency, under {@code /mgmt/queries}.
+ */
+@Component
+@Endpoint(id = "queries")
+public class QueriesEndpoint {
+
+    private final QueryMetrics queryMetrics;
+    private final int defaultLimit;
+
+    public QueriesEndpoint(final QueryMetrics queryMetrics, final DocasmProperties docasmProperties) {
+        this.queryMetrics = queryMetrics;
+        this.defaultLimit = docasmProperties.getQueries().getTopStatements();
+    }
+
+    @ReadOperation
+    public List<QueryStatistics> slowestStatements(@Nullable final Integer limit) {
+        return queryMetrics.slowestStatements(limit != null ? limit : defaultLimit);
+    }
+
+}
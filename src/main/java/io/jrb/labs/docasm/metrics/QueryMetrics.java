@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.metrics;
+
+import io.jrb.labs.docasm.config.DocasmProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.r2dbc.spi.Connection;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.util.context.ContextView;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Times every statement run on an instrumented connection and attributes it to the repository method that issued
+ * it, as recorded in the Reactor context by {@link RepositoryCallerPostProcessor}. Statements slower than the
+ * configured threshold are logged with their bound parameters.
+ */
+@Component
+@Slf4j
+public class QueryMetrics {
+
+    static final String CALLER_KEY = QueryMetrics.class.getName() + ".caller";
+    static final String UNKNOWN_CALLER = "unknown";
+
+    private final MeterRegistry meterRegistry;
+    private final DocasmProperties.Queries properties;
+    private final long slowThresholdNanos;
+    private final Map<String, CallerMeters> callerMeters = new ConcurrentHashMap<>();
+    private final Map<String, StatementStatistics> statements = new ConcurrentHashMap<>();
+
+    public QueryMetrics(final MeterRegistry meterRegistry, final DocasmProperties docasmProperties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = docasmProperties.getQueries();
+        this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+    }
+
+    public Connection instrument(final Connection connection) {
+        return QueryProxies.connection(connection, this);
+    }
+
+    public List<QueryStatistics> slowestStatements(final int limit) {
+        return statements.values().stream()
+                .sorted(Comparator.comparingLong(StatementStatistics::getMaxNanos).reversed())
+                .limit(limit)
+                .map(StatementStatistics::toQueryStatistics)
+                .collect(Collectors.toList());
+    }
+
+    StatementBindings newBindings() {
+        return new StatementBindings(properties.getMaxLoggedBindings());
+    }
+
+    StatementExecution start(final String sql, final ContextView context, final StatementBindings bindings) {
+        return new StatementExecution(this, sql, context.getOrDefault(CALLER_KEY, UNKNOWN_CALLER), bindings);
+    }
+
+    void record(final StatementExecution execution, final long elapsedNanos) {
+        final String caller = execution.getCaller();
+        final CallerMeters meters = callerMeters.computeIfAbsent(caller, CallerMeters::new);
+        meters.timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        meters.rows.record(execution.getRows());
+
+        StatementStatistics statistics = statements.get(execution.getSql());
+        if (statistics == null && statements.size() < properties.getMaxTrackedStatements()) {
+            statistics = statements.computeIfAbsent(execution.getSql(), StatementStatistics::new);
+        }
+        if (statistics != null) {
+            statistics.record(caller, elapsedNanos, execution.getRows());
+        }
+
+        if (elapsedNanos >= slowThresholdNanos) {
+            meters.slow.increment();
+            log.warn("SLOW query {}ms in {} - rows={}, sql={}, bindings={}",
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), caller, execution.getRows(),
+                    execution.getSql(), execution.getBindings());
+        }
+    }
+
+    private final class CallerMeters {
+
+        private final Timer timer;
+        private final DistributionSummary rows;
+        private final Counter slow;
+
+        CallerMeters(final String caller) {
+            this.timer = Timer.builder("r2dbc.query")
+                    .description("Statement execution time, until its result has been consumed")
+                    .tag("caller", caller)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry);
+            this.rows = DistributionSummary.builder("r2dbc.query.rows")
+                    .description("Rows returned or updated per statement")
+                    .tag("caller", caller)
+                    .register(meterRegistry);
+            this.slow = Counter.builder("r2dbc.query.slow")
+                    .description("Statements slower than the slow-query threshold")
+                    .tag("caller", caller)
+                    .register(meterRegistry);
+        }
+
+    }
+
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.metrics;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.reactivestreams.Publisher;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Dynamic proxies over the R2DBC SPI that hand every statement execution to {@link QueryMetrics}. Calls that
+ * return the proxied object itself, such as the fluent {@code bind} methods, return the proxy instead. An execution
+ * is recorded once its result has been read or abandoned; one cancelled before producing a result is recorded on
+ * cancel, and one whose result is never read is recorded when its connection is closed.
+ */
+final class QueryProxies {
+
+    private QueryProxies() {
+    }
+
+    static Connection connection(final Connection connection, final QueryMetrics queryMetrics) {
+        final Set<StatementExecution> open = ConcurrentHashMap.newKeySet();
+        return proxy(connection, Connection.class, (proxy, method, args) -> {
+            if ("close".equals(method.getName())) {
+                open.forEach(execution -> complete(execution, open));
+            }
+            final Object result = invoke(connection, method, args);
+            if ("createStatement".equals(method.getName())) {
+                return statement((Statement) result, (String) args[0], queryMetrics, open);
+            }
+            return result == connection ? proxy : result;
+        });
+    }
+
+    private static Statement statement(
+            final Statement statement,
+            final String sql,
+            final QueryMetrics queryMetrics,
+            final Set<StatementExecution> open
+    ) {
+        final StatementBindings bindings = queryMetrics.newBindings();
+        return proxy(statement, Statement.class, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "bind":
+                    bindings.bind(args[0], args[1]);
+                    break;
+                case "bindNull":
+                    bindings.bind(args[0], null);
+                    break;
+                case "add":
+                    bindings.add();
+                    break;
+                case "execute":
+                    return Flux.deferContextual(context -> {
+                        final StatementExecution execution = queryMetrics.start(sql, context, bindings);
+                        final AtomicBoolean resulted = new AtomicBoolean();
+                        open.add(execution);
+                        return Flux.from(statement.execute())
+                                .doOnNext(result -> resulted.set(true))
+                                .map(result -> result(result, execution, open))
+                                .doOnError(error -> complete(execution, open))
+                                .doFinally(signal -> {
+                                    if (!resulted.get()) {
+                                        complete(execution, open);
+                                    }
+                                });
+                    });
+                default:
+                    break;
+            }
+            final Object result = invoke(statement, method, args);
+            return result == statement ? proxy : result;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Result result(
+            final Result result,
+            final StatementExecution execution,
+            final Set<StatementExecution> open
+    ) {
+        return proxy(result, Result.class, (proxy, method, args) -> {
+            final Object value = invoke(result, method, args);
+            switch (method.getName()) {
+                case "map":
+                    return Flux.from((Publisher<?>) value)
+                            .doOnNext(row -> execution.rows(1))
+                            .doFinally(signal -> complete(execution, open));
+                case "getRowsUpdated":
+                    return Mono.from((Publisher<? extends Number>) value)
+                            .doOnNext(count -> execution.rows(count.longValue()))
+                            .doFinally(signal -> complete(execution, open));
+                default:
+                    return value == result ? proxy : value;
+            }
+        });
+    }
+
+    private static void complete(final StatementExecution execution, final Set<StatementExecution> open) {
+        open.remove(execution);
+        execution.complete();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(final T target, final Class<T> type, final InvocationHandler handler) {
+        final Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(target.getClass(), type.getClassLoader());
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), interfaces, handler);
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (final InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+}
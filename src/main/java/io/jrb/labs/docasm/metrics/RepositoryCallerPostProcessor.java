@@ -0,0 +1,90 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the repository method being called in the Reactor context of the publisher it returns, so that
+ * {@link QueryMetrics} can attribute each statement to the method that issued it.
+ */
+@Component
+public class RepositoryCallerPostProcessor implements BeanPostProcessor {
+
+    private static final String APPLICATION_PACKAGE = "io.jrb.labs.docasm";
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        if (!(bean instanceof Repository)) {
+            return bean;
+        }
+        final String repositoryName = ClassUtils.getAllInterfacesAsSet(bean).stream()
+                .filter(type -> Repository.class.isAssignableFrom(type))
+                .filter(type -> type.getName().startsWith(APPLICATION_PACKAGE))
+                .map(Class::getSimpleName)
+                .findFirst()
+                .orElse(null);
+        if (repositoryName == null) {
+            return bean;
+        }
+
+        final MethodInterceptor interceptor = callerInterceptor(repositoryName);
+        if (bean instanceof Advised && !((Advised) bean).isFrozen()) {
+            ((Advised) bean).addAdvice(0, interceptor);
+            return bean;
+        }
+        final ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy();
+    }
+
+    private static MethodInterceptor callerInterceptor(final String repositoryName) {
+        final Map<Method, Context> contexts = new ConcurrentHashMap<>();
+        return invocation -> {
+            final Object result = invocation.proceed();
+            if (result instanceof Mono || result instanceof Flux) {
+                final Context context = contexts.computeIfAbsent(invocation.getMethod(), method ->
+                        Context.of(QueryMetrics.CALLER_KEY, repositoryName + "." + method.getName()));
+                return result instanceof Mono
+                        ? ((Mono<?>) result).contextWrite(context)
+                        : ((Flux<?>) result).contextWrite(context);
+            }
+            return result;
+        };
+    }
+
+}
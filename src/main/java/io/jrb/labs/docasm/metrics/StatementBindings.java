@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Values bound to a statement, kept for the slow-query log. Only the first values are retained so that large
+ * multi-row inserts do not copy their whole payload. A statement is bound by a single thread before it executes.
+ */
+class StatementBindings {
+
+    private static final int MAX_VALUE_LENGTH = 64;
+
+    private final int maxValues;
+    private final List<Map<String, Object>> bindingSets = new ArrayList<>();
+    private Map<String, Object> current;
+    private int count;
+
+    StatementBindings(final int maxValues) {
+        this.maxValues = maxValues;
+    }
+
+    void bind(final Object key, final Object value) {
+        if (count++ < maxValues) {
+            if (current == null) {
+                current = new LinkedHashMap<>();
+                bindingSets.add(current);
+            }
+            current.put(key instanceof Integer ? "$" + ((Integer) key + 1) : String.valueOf(key), value);
+        }
+    }
+
+    void add() {
+        current = null;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder("[");
+        for (final Map<String, Object> bindingSet : bindingSets) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append('{');
+            bindingSet.forEach((key, value) -> {
+                if (builder.charAt(builder.length() - 1) != '{') {
+                    builder.append(", ");
+                }
+                builder.append(key).append('=').append(format(value));
+            });
+            builder.append('}');
+        }
+        if (count > maxValues) {
+            builder.append(" ... ").append(count - maxValues).append(" more");
+        }
+        return builder.append(']').toString();
+    }
+
+    private static String format(final Object value) {
+        final String text = String.valueOf(value);
+        return text.length() > MAX_VALUE_LENGTH ? text.substring(0, MAX_VALUE_LENGTH) + "..." : text;
+    }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.metrics;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One execution of an instrumented statement, from the subscription to its execution until its result has been
+ * consumed. Results are consumed downstream, so the elapsed time includes the time the caller takes to read them.
+ */
+class StatementExecution {
+
+    private final QueryMetrics queryMetrics;
+    private final String sql;
+    private final String caller;
+    private final StatementBindings bindings;
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong rows = new AtomicLong();
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    StatementExecution(
+            final QueryMetrics queryMetrics,
+            final String sql,
+            final String caller,
+            final StatementBindings bindings
+    ) {
+        this.queryMetrics = queryMetrics;
+        this.sql = sql;
+        this.caller = caller;
+        this.bindings = bindings;
+    }
+
+    String getSql() {
+        return sql;
+    }
+
+    String getCaller() {
+        return caller;
+    }
+
+    StatementBindings getBindings() {
+        return bindings;
+    }
+
+    long getRows() {
+        return rows.get();
+    }
+
+    void rows(final long count) {
+        rows.addAndGet(count);
+    }
+
+    void complete() {
+        if (completed.compareAndSet(false, true)) {
+            queryMetrics.record(this, System.nanoTime() - startNanos);
+        }
+    }
+
+}
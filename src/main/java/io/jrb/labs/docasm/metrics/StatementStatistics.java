@@ -0,0 +1,73 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.metrics;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals for one distinct SQL statement.
+ */
+class StatementStatistics {
+
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final String sql;
+    private final Set<String> callers = ConcurrentHashMap.newKeySet();
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAdder totalRows = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+
+    StatementStatistics(final String sql) {
+        this.sql = sql;
+    }
+
+    void record(final String caller, final long elapsedNanos, final long rows) {
+        callers.add(caller);
+        count.increment();
+        totalNanos.add(elapsedNanos);
+        totalRows.add(rows);
+        maxNanos.accumulate(elapsedNanos);
+    }
+
+    long getMaxNanos() {
+        return maxNanos.get();
+    }
+
+    QueryStatistics toQueryStatistics() {
+        final long executions = count.sum();
+        return QueryStatistics.builder()
+                .sql(sql)
+                .callers(callers)
+                .count(executions)
+                .totalRows(totalRows.sum())
+                .meanMillis(executions > 0 ? totalNanos.sum() / NANOS_PER_MILLI / executions : 0.0)
+                .maxMillis(maxNanos.get() / NANOS_PER_MILLI)
+                .build();
+    }
+
+}
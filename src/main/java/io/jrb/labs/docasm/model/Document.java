@@ -33,6 +33,7 @@ import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedBy;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.annotation.Version;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -73,6 +74,10 @@ public class Document implements Entity {
     @Column(value = "do_modified_on")
     Instant modifiedOn;
 
+    @Version
+    @Column(value = "do_version")
+    Long version;
+
     public static DocumentBuilder fromResource(final DocumentResource documentResource) {
         return Document.builder()
                 .guid(documentResource.getGuid())
@@ -23,6 +23,29 @@
  */
 package io.jrb.labs.docasm.model;
 
+import java.util.Arrays;
+
+/**
+ * Kinds of entity owning lookup values. The code is what <code>t_lookup_value</code> stores.
+ */
 public enum EntityType {
-    DOCUMENT;
+    DOCUMENT(1);
+
+    private final int code;
+
+    EntityType(final int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static EntityType fromCode(final int code) {
+        return Arrays.stream(values())
+                .filter(value -> value.code == code)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown entity type code: " + code));
+    }
+
 }
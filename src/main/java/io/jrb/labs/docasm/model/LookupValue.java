@@ -26,6 +26,7 @@ package io.jrb.labs.docasm.model;
 import lombok.Builder;
 import lombok.Value;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.relational.core.mapping.Column;
 import org.springframework.data.relational.core.mapping.Table;
 
@@ -47,7 +48,8 @@ public class LookupValue {
     @Column(value = "lv_value_type")
     LookupValueType valueType;
 
-    @Column(value = "lv_value")
+    /** Stored as a <code>t_lookup_dictionary</code> identifier; the repository encodes and decodes it. */
+    @Transient
     String value;
 
 }
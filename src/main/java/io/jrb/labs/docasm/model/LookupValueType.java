@@ -23,6 +23,29 @@
  */
 package io.jrb.labs.docasm.model;
 
+import java.util.Arrays;
+
+/**
+ * Kinds of lookup value. Codes are persisted, so they must never be reused or renumbered.
+ */
 public enum LookupValueType {
-    TAG;
+    TAG(1);
+
+    private final int code;
+
+    LookupValueType(final int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static LookupValueType fromCode(final int code) {
+        return Arrays.stream(values())
+                .filter(value -> value.code == code)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown lookup value type code: " + code));
+    }
+
 }
@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.repository;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Writes entities with multi-row <code>INSERT ... VALUES (...), (...)</code> statements, reading the generated keys
+ * back in insertion order.
+ *
+ * @param <E> the entity type
+ */
+abstract class BatchInsertSupport<E> {
+
+    static final int MAX_ROWS_PER_STATEMENT = 250;
+
+    private final DatabaseClient databaseClient;
+    private final String table;
+    private final String idColumn;
+    private final List<BatchColumn<E>> columns;
+
+    protected BatchInsertSupport(
+            final DatabaseClient databaseClient,
+            final String table,
+            final String idColumn,
+            final List<BatchColumn<E>> columns
+    ) {
+        this.databaseClient = databaseClient;
+        this.table = table;
+        this.idColumn = idColumn;
+        this.columns = columns;
+    }
+
+    protected Flux<E> insertAll(final List<E> entities) {
+        return Flux.fromIterable(entities)
+                .buffer(MAX_ROWS_PER_STATEMENT)
+                .concatMap(this::insertChunk);
+    }
+
+    protected abstract E withId(E entity, long id);
+
+    private Flux<E> insertChunk(final List<E> chunk) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(insertSql(chunk.size()));
+        for (int row = 0; row < chunk.size(); row++) {
+            final E entity = chunk.get(row);
+            for (int col = 0; col < columns.size(); col++) {
+                final BatchColumn<E> column = columns.get(col);
+                final Object value = column.getExtractor().apply(entity);
+                final String name = parameterName(row, col);
+                spec = (value != null) ? spec.bind(name, value) : spec.bindNull(name, column.getType());
+            }
+        }
+        return spec.filter(statement -> statement.returnGeneratedValues(idColumn))
+                .map(row -> ((Number) row.get(0)).longValue())
+                .all()
+                .index()
+                .map(tuple -> withId(chunk.get(tuple.getT1().intValue()), tuple.getT2()));
+    }
+
+    private String insertSql(final int rowCount) {
+        final String columnList = columns.stream()
+                .map(BatchColumn::getName)
+                .collect(Collectors.joining(", "));
+        final String valueList = IntStream.range(0, rowCount)
+                .mapToObj(row -> IntStream.range(0, columns.size())
+                        .mapToObj(col -> ":" + parameterName(row, col))
+                        .collect(Collectors.joining(", ", "(", ")")))
+                .collect(Collectors.joining(", "));
+        return "INSERT INTO " + table + " (" + columnList + ") VALUES " + valueList;
+    }
+
+    private static String parameterName(final int row, final int col) {
+        return "p" + row + "_" + col;
+    }
+
+    static <E> BatchColumn<E> column(final String name, final Class<?> type, final Function<E, Object> extractor) {
+        return new BatchColumn<>(name, type, extractor);
+    }
+
+    static LocalDateTime toLocalDateTime(final Instant instant) {
+        return (instant != null) ? LocalDateTime.ofInstant(instant, ZoneId.systemDefault()) : null;
+    }
+
+    static String toName(final Enum<?> value) {
+        return (value != null) ? value.name() : null;
+    }
+
+    static final class BatchColumn<E> {
+
+        private final String name;
+        private final Class<?> type;
+        private final Function<E, Object> extractor;
+
+        BatchColumn(final String name, final Class<?> type, final Function<E, Object> extractor) {
+            this.name = name;
+            this.type = type;
+            this.extractor = extractor;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        Class<?> getType() {
+            return type;
+        }
+
+        Function<E, Object> getExtractor() {
+            return extractor;
+        }
+
+    }
+
+}
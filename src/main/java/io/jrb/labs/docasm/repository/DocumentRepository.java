@@ -29,12 +29,18 @@ import org.springframework.data.r2dbc.repository.Query;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface DocumentRepository extends EntityRepository<Document>  {
+import java.util.Collection;
+
+public interface DocumentRepository extends EntityRepository<Document>, DocumentRepositoryCustom {
+
+    Mono<Integer> deleteByIdAndVersion(Long id, Long version);
+
+    Mono<Integer> deleteByIdIn(Collection<Long> ids);
 
     @Query("select do_id, do_guid, do_name from t_document where do_guid = $1")
     Mono<Document> findByGuid(String guid);
 
-    @Query("select task_id, guid, name, description from t_document where name = $1")
+    @Query("select * from t_document where do_name = $1 order by do_id")
     Flux<Document> findAllByName(String name);
 
 }
@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.repository;
+
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.model.DocumentAggregate;
+import io.jrb.labs.docasm.model.DocumentType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+public interface DocumentRepositoryCustom {
+
+    /**
+     * Finds a document together with its sections and lookup values using a single statement.
+     *
+     * @param guid the document guid
+     * @return the document aggregate, or empty if no document has the given guid
+     */
+    Mono<DocumentAggregate> findAggregateByGuid(UUID guid);
+
+    /**
+     * Finds the identifier, guid, name and type of every document matching all of the given criteria.
+     *
+     * @param guids the document guids, or null to match any guid
+     * @param type the document type, or null to match any type
+     * @return the matching documents, with only their identifier, guid, name and type populated
+     */
+    Flux<Document> findKeys(Collection<UUID> guids, DocumentType type);
+
+    /**
+     * Finds the next page of documents in identifier order, using the identifier as the keyset.
+     *
+     * @param afterId the identifier of the last document of the previous page, or zero for the first page
+     * @param limit the maximum number of documents to return, also used as the driver fetch size
+     * @return the documents whose identifier follows the given one
+     */
+    Flux<Document> findPage(long afterId, int limit);
+
+    /**
+     * Updates only the given columns of a document, stamps its modification time and increments its version, provided
+     * the document is still at the expected version.
+     *
+     * @param documentId the document identifier
+     * @param expectedVersion the version the changes were made against
+     * @param name the new name, or null to keep the current one
+     * @param type the new type, or null to keep the current one
+     * @param modifiedOn the modification time
+     * @return the number of updated rows, zero when the document is missing or at another version
+     */
+    Mono<Integer> updateColumns(long documentId, long expectedVersion, String name, DocumentType type,
+                                Instant modifiedOn);
+
+}
@@ -0,0 +1,221 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.repository;
+
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.model.DocumentAggregate;
+import io.jrb.labs.docasm.model.DocumentSection;
+import io.jrb.labs.docasm.model.DocumentSectionType;
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.model.EntityType;
+import io.jrb.labs.docasm.model.LookupValue;
+import io.jrb.labs.docasm.model.LookupValueType;
+import io.r2dbc.spi.Row;
+import org.springframework.data.r2dbc.convert.R2dbcConverter;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+public class DocumentRepositoryCustomImpl implements DocumentRepositoryCustom {
+
+    static final String FIND_AGGREGATE_SQL = "SELECT 'D' AS rt, do_id AS r_id, do_guid AS r_guid,"
+            + " do_name AS r_name, do_type AS r_kind, do_id AS r_parent_id,"
+            + " do_created_by AS r_created_by, do_created_on AS r_created_on,"
+            + " do_modified_by AS r_modified_by, do_modified_on AS r_modified_on, do_version AS r_version"
+            + " FROM t_document WHERE do_guid = :guid"
+            + " UNION ALL"
+            + " SELECT 'S', ds_id, ds_guid, ds_name, ds_type, ds_do_id,"
+            + " ds_created_by, ds_created_on, ds_modified_by, ds_modified_on, NULL"
+            + " FROM t_document_section JOIN t_document ON ds_do_id = do_id WHERE do_guid = :guid"
+            + " UNION ALL"
+            + " SELECT 'V', lv_id, NULL, ld_value, CAST(lv_value_type AS VARCHAR), lv_entity_id,"
+            + " NULL, NULL, NULL, NULL, NULL"
+            + " FROM t_lookup_value JOIN t_document ON lv_entity_id = do_id"
+            + " JOIN t_lookup_dictionary ON ld_id = lv_value_id"
+            + " WHERE lv_entity_type = :entityType AND do_guid = :guid"
+            + " ORDER BY rt, r_id";
+
+    static final String FIND_KEYS_SQL = "SELECT do_id, do_guid, do_name, do_type, do_version FROM t_document";
+
+    static final String FIND_PAGE_SQL =
+            "SELECT * FROM t_document WHERE do_id > :afterId ORDER BY do_id LIMIT :limit";
+
+    private static final String UPDATE_COLUMNS_SQL =
+            "UPDATE t_document SET do_version = do_version + 1, do_modified_on = :modifiedOn";
+
+    private final DatabaseClient databaseClient;
+    private final R2dbcConverter r2dbcConverter;
+
+    public DocumentRepositoryCustomImpl(final DatabaseClient databaseClient, final R2dbcConverter r2dbcConverter) {
+        this.databaseClient = databaseClient;
+        this.r2dbcConverter = r2dbcConverter;
+    }
+
+    @Override
+    public Mono<DocumentAggregate> findAggregateByGuid(final UUID guid) {
+        return databaseClient.sql(FIND_AGGREGATE_SQL)
+                .bind("guid", guid)
+                .bind("entityType", EntityType.DOCUMENT.getCode())
+                .map((row, metadata) -> readAggregateRow(row))
+                .all()
+                .reduceWith(DocumentAggregate::builder, (builder, entity) -> {
+                    if (entity instanceof DocumentSection) {
+                        builder.section((DocumentSection) entity);
+                    } else if (entity instanceof LookupValue) {
+                        builder.lookupValue((LookupValue) entity);
+                    } else {
+                        builder.document((Document) entity);
+                    }
+                    return builder;
+                })
+                .map(DocumentAggregate.DocumentAggregateBuilder::build)
+                .filter(aggregate -> aggregate.getDocument() != null);
+    }
+
+    @Override
+    public Flux<Document> findKeys(final Collection<UUID> guids, final DocumentType type) {
+        DatabaseClient.GenericExecuteSpec statement = databaseClient.sql(findKeysSql(guids != null, type != null));
+        if (guids != null) {
+            statement = statement.bind("guids", guids);
+        }
+        if (type != null) {
+            statement = statement.bind("type", type.name());
+        }
+        return statement
+                .map((row, metadata) -> Document.builder()
+                        .id(row.get("do_id", Number.class).longValue())
+                        .guid(row.get("do_guid", UUID.class))
+                        .name(row.get("do_name", String.class))
+                        .type(DocumentType.valueOf(row.get("do_type", String.class)))
+                        .version(row.get("do_version", Number.class).longValue())
+                        .build())
+                .all();
+    }
+
+    @Override
+    public Flux<Document> findPage(final long afterId, final int limit) {
+        return databaseClient.sql(FIND_PAGE_SQL)
+                .bind("afterId", afterId)
+                .bind("limit", limit)
+                .filter(statement -> statement.fetchSize(limit))
+                .map((row, metadata) -> r2dbcConverter.read(Document.class, row, metadata))
+                .all();
+    }
+
+    @Override
+    public Mono<Integer> updateColumns(
+            final long documentId,
+            final long expectedVersion,
+            final String name,
+            final DocumentType type,
+            final Instant modifiedOn
+    ) {
+        final StringBuilder sql = new StringBuilder(UPDATE_COLUMNS_SQL);
+        if (name != null) {
+            sql.append(", do_name = :name");
+        }
+        if (type != null) {
+            sql.append(", do_type = :type");
+        }
+        sql.append(" WHERE do_id = :documentId AND do_version = :expectedVersion");
+
+        DatabaseClient.GenericExecuteSpec statement = databaseClient.sql(sql.toString())
+                .bind("modifiedOn", BatchInsertSupport.toLocalDateTime(modifiedOn))
+                .bind("documentId", documentId)
+                .bind("expectedVersion", expectedVersion);
+        if (name != null) {
+            statement = statement.bind("name", name);
+        }
+        if (type != null) {
+            statement = statement.bind("type", type.name());
+        }
+        return statement.fetch().rowsUpdated();
+    }
+
+    static String findKeysSql(final boolean byGuids, final boolean byType) {
+        final StringBuilder sql = new StringBuilder(FIND_KEYS_SQL);
+        if (byGuids) {
+            sql.append(" WHERE do_guid IN (:guids)");
+        }
+        if (byType) {
+            sql.append(byGuids ? " AND" : " WHERE").append(" do_type = :type");
+        }
+        return sql.toString();
+    }
+
+    private static Object readAggregateRow(final Row row) {
+        final String rowType = row.get("rt", String.class);
+        final long id = row.get("r_id", Number.class).longValue();
+        final long parentId = row.get("r_parent_id", Number.class).longValue();
+        final String name = row.get("r_name", String.class);
+        final String kind = row.get("r_kind", String.class);
+        if ("S".equals(rowType)) {
+            return DocumentSection.builder()
+                    .id(id)
+                    .guid(row.get("r_guid", UUID.class))
+                    .name(name)
+                    .type(DocumentSectionType.valueOf(kind))
+                    .documentId(parentId)
+                    .createdBy(row.get("r_created_by", String.class))
+                    .createdOn(toInstant(row.get("r_created_on", LocalDateTime.class)))
+                    .modifiedBy(row.get("r_modified_by", String.class))
+                    .modifiedOn(toInstant(row.get("r_modified_on", LocalDateTime.class)))
+                    .build();
+        } else if ("V".equals(rowType)) {
+            return LookupValue.builder()
+                    .id(id)
+                    .entityType(EntityType.DOCUMENT)
+                    .entityId(parentId)
+                    .valueType(LookupValueType.fromCode(Integer.parseInt(kind)))
+                    .value(name)
+                    .build();
+        } else {
+            return Document.builder()
+                    .id(id)
+                    .guid(row.get("r_guid", UUID.class))
+                    .name(name)
+                    .type(DocumentType.valueOf(kind))
+                    .createdBy(row.get("r_created_by", String.class))
+                    .createdOn(toInstant(row.get("r_created_on", LocalDateTime.class)))
+                    .modifiedBy(row.get("r_modified_by", String.class))
+                    .modifiedOn(toInstant(row.get("r_modified_on", LocalDateTime.class)))
+                    .version(row.get("r_version", Number.class).longValue())
+                    .build();
+        }
+    }
+
+    private static Instant toInstant(final LocalDateTime localDateTime) {
+        return Optional.ofNullable(localDateTime)
+                .map(value -> value.atZone(ZoneId.systemDefault()).toInstant())
+                .orElse(null);
+    }
+
+}
@@ -30,16 +30,22 @@ import org.springframework.data.r2dbc.repository.Query;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-public interface DocumentSectionRepository extends EntityRepository<DocumentSection> {
+import java.util.Collection;
+
+public interface DocumentSectionRepository extends EntityRepository<DocumentSection>, DocumentSectionRepositoryCustom {
 
     Mono<Void> deleteByDocumentId(Long documentId);
 
-    Flux<DocumentSection> findAllByDocumentId(Long documentId);
+    Mono<Integer> deleteByDocumentIdIn(Collection<Long> documentIds);
+
+    Flux<DocumentSection> findAllByDocumentIdOrderByIdAsc(Long documentId);
+
+    Flux<DocumentSection> findAllByDocumentIdInOrderByIdAsc(Collection<Long> documentIds);
 
     @Query("select ds_id, ds_guid, ds_name from t_document_section where ds_guid = $1")
     Mono<DocumentSection> findByGuid(String guid);
 
-    @Query("select task_id, guid, name, description from t_document_section where name = $1")
+    @Query("select * from t_document_section where ds_name = $1 order by ds_id")
     Flux<DocumentSection> findAllByName(String name);
 
 }
@@ -0,0 +1,65 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.repository;
+
+import io.jrb.labs.docasm.model.DocumentSection;
+import io.jrb.labs.docasm.model.DocumentSectionType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface DocumentSectionRepositoryCustom {
+
+    /**
+     * Inserts the given sections using multi-row statements.
+     *
+     * @param sections the sections to insert
+     * @return the inserted sections, in order, with their generated identifiers
+     */
+    Flux<DocumentSection> insertAll(List<DocumentSection> sections);
+
+    /**
+     * Updates the section at the given position of a document, sections being ordered by identifier.
+     *
+     * @param documentId the document identifier
+     * @param index the zero-based position of the section
+     * @param name the new name, or null to keep the current one
+     * @param type the new type, or null to keep the current one
+     * @param modifiedOn the modification time
+     * @return the number of updated rows, zero when the document has no section at that position
+     */
+    Mono<Integer> updateAt(long documentId, long index, String name, DocumentSectionType type, Instant modifiedOn);
+
+    /**
+     * Deletes the section at the given position of a document, sections being ordered by identifier.
+     *
+     * @param documentId the document identifier
+     * @param index the zero-based position of the section
+     * @return the number of deleted rows, zero when the document has no section at that position
+     */
+    Mono<Integer> deleteAt(long documentId, long index);
+
+}
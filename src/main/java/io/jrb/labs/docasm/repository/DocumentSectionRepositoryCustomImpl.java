@@ -0,0 +1,113 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.repository;
+
+import io.jrb.labs.docasm.model.DocumentSection;
+import io.jrb.labs.docasm.model.DocumentSectionType;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+public class DocumentSectionRepositoryCustomImpl extends BatchInsertSupport<DocumentSection>
+        implements DocumentSectionRepositoryCustom {
+
+    private static final String SECTION_AT = "(SELECT ds_id FROM t_document_section WHERE ds_do_id = :documentId"
+            + " ORDER BY ds_id LIMIT 1 OFFSET :index)";
+    private static final String UPDATE_AT_SQL = "UPDATE t_document_section SET ds_modified_on = :modifiedOn";
+    static final String DELETE_AT_SQL = "DELETE FROM t_document_section WHERE ds_id = " + SECTION_AT;
+
+    private final DatabaseClient databaseClient;
+
+    public DocumentSectionRepositoryCustomImpl(final DatabaseClient databaseClient) {
+        super(databaseClient, "t_document_section", "ds_id", Arrays.asList(
+                column("ds_guid", UUID.class, DocumentSection::getGuid),
+                column("ds_do_id", Long.class, DocumentSection::getDocumentId),
+                column("ds_name", String.class, DocumentSection::getName),
+                column("ds_type", String.class, section -> toName(section.getType())),
+                column("ds_created_by", String.class, DocumentSection::getCreatedBy),
+                column("ds_created_on", LocalDateTime.class, section -> toLocalDateTime(section.getCreatedOn())),
+                column("ds_modified_by", String.class, DocumentSection::getModifiedBy),
+                column("ds_modified_on", LocalDateTime.class, section -> toLocalDateTime(section.getModifiedOn()))
+        ));
+        this.databaseClient = databaseClient;
+    }
+
+    @Override
+    public Flux<DocumentSection> insertAll(final List<DocumentSection> sections) {
+        return super.insertAll(sections);
+    }
+
+    @Override
+    public Mono<Integer> updateAt(
+            final long documentId,
+            final long index,
+            final String name,
+            final DocumentSectionType type,
+            final Instant modifiedOn
+    ) {
+        DatabaseClient.GenericExecuteSpec statement = databaseClient.sql(updateAtSql(name != null, type != null))
+                .bind("modifiedOn", toLocalDateTime(modifiedOn))
+                .bind("documentId", documentId)
+                .bind("index", index);
+        if (name != null) {
+            statement = statement.bind("name", name);
+        }
+        if (type != null) {
+            statement = statement.bind("type", type.name());
+        }
+        return statement.fetch().rowsUpdated();
+    }
+
+    @Override
+    public Mono<Integer> deleteAt(final long documentId, final long index) {
+        return databaseClient.sql(DELETE_AT_SQL)
+                .bind("documentId", documentId)
+                .bind("index", index)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    static String updateAtSql(final boolean withName, final boolean withType) {
+        final StringBuilder sql = new StringBuilder(UPDATE_AT_SQL);
+        if (withName) {
+            sql.append(", ds_name = :name");
+        }
+        if (withType) {
+            sql.append(", ds_type = :type");
+        }
+        return sql.append(" WHERE ds_id = ").append(SECTION_AT).toString();
+    }
+
+    @Override
+    protected DocumentSection withId(final DocumentSection section, final long id) {
+        return section.toBuilder().id(id).build();
+    }
+
+}
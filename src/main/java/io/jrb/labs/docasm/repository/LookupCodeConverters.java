@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.repository;
+
+import io.jrb.labs.docasm.model.EntityType;
+import io.jrb.labs.docasm.model.LookupValueType;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+
+import java.util.List;
+
+/**
+ * Maps the lookup enums to and from the integer codes stored in <code>t_lookup_value</code>, so that derived queries
+ * on {@link LookupValueRepository} bind codes rather than enum names.
+ */
+public final class LookupCodeConverters {
+
+    private LookupCodeConverters() {
+    }
+
+    public static List<Converter<?, ?>> converters() {
+        return List.of(
+                EntityTypeWritingConverter.INSTANCE,
+                EntityTypeReadingConverter.INSTANCE,
+                LookupValueTypeWritingConverter.INSTANCE,
+                LookupValueTypeReadingConverter.INSTANCE
+        );
+    }
+
+    @WritingConverter
+    enum EntityTypeWritingConverter implements Converter<EntityType, Integer> {
+        INSTANCE;
+
+        @Override
+        public Integer convert(final EntityType source) {
+            return source.getCode();
+        }
+    }
+
+    @ReadingConverter
+    enum EntityTypeReadingConverter implements Converter<Number, EntityType> {
+        INSTANCE;
+
+        @Override
+        public EntityType convert(final Number source) {
+            return EntityType.fromCode(source.intValue());
+        }
+    }
+
+    @WritingConverter
+    enum LookupValueTypeWritingConverter implements Converter<LookupValueType, Integer> {
+        INSTANCE;
+
+        @Override
+        public Integer convert(final LookupValueType source) {
+            return source.getCode();
+        }
+    }
+
+    @ReadingConverter
+    enum LookupValueTypeReadingConverter implements Converter<Number, LookupValueType> {
+        INSTANCE;
+
+        @Override
+        public LookupValueType convert(final Number source) {
+            return LookupValueType.fromCode(source.intValue());
+        }
+    }
+
+}
@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * Interns lookup value strings as <code>t_lookup_dictionary</code> identifiers, caching known pairs in both directions
+ * for the life of the process. Dictionary rows are never deleted, so a cached pair never goes stale; pairs seen inside
+ * a transaction are only cached once it commits, so a rollback cannot leave an identifier behind that has no row.
+ */
+@Component
+public class LookupDictionary {
+
+    static final String FIND_IDS_SQL = "SELECT ld_id, ld_value FROM t_lookup_dictionary"
+            + " WHERE ld_value IN (:values)";
+    private static final String MERGE_SQL = "MERGE INTO t_lookup_dictionary (ld_value) KEY (ld_value) VALUES (:value)";
+
+    private final DatabaseClient databaseClient;
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Integer, String> values = new ConcurrentHashMap<>();
+
+    public LookupDictionary(final DatabaseClient databaseClient, final MeterRegistry meterRegistry) {
+        this.databaseClient = databaseClient;
+        Gauge.builder("lookup.dictionary.cached", ids, Map::size)
+                .description("Lookup values whose dictionary identifier is cached in process")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached instance of a value read back from the database, so that lookup values loaded from many rows
+     * share one string per distinct value.
+     *
+     * @param id the dictionary identifier of the value
+     * @param value the value as read
+     * @return the cached instance, or the given value when it is not cached
+     */
+    public String canonical(final int id, final String value) {
+        return values.getOrDefault(id, value);
+    }
+
+    /**
+     * Resolves the dictionary identifiers of the given values, adding the values the dictionary does not hold yet.
+     *
+     * @param lookupValues the values to resolve
+     * @return the identifier of each distinct value
+     */
+    public Mono<Map<String, Integer>> idsOf(final Collection<String> lookupValues) {
+        final Map<String, Integer> known = new HashMap<>();
+        final SortedSet<String> missing = new TreeSet<>();
+        lookupValues.forEach(value -> {
+            final Integer id = ids.get(value);
+            if (id != null) {
+                known.put(value, id);
+            } else {
+                missing.add(value);
+            }
+        });
+        if (missing.isEmpty()) {
+            return Mono.just(known);
+        }
+        return findIds(missing)
+                .flatMap(found -> addAbsent(missing, found))
+                .flatMap(found -> TransactionHooks.afterCommit(() -> cache(found)).thenReturn(found))
+                .map(found -> {
+                    final Map<String, Integer> resolved = new HashMap<>(known);
+                    resolved.putAll(found);
+                    return resolved;
+                });
+    }
+
+    private Mono<Map<String, Integer>> addAbsent(final SortedSet<String> missing, final Map<String, Integer> found) {
+        final List<String> absent = missing.stream()
+                .filter(value -> !found.containsKey(value))
+                .collect(Collectors.toList());
+        if (absent.isEmpty()) {
+            return Mono.just(found);
+        }
+        // sorted, so that transactions adding overlapping values lock the dictionary rows in the same order; a value
+        // another transaction added first fails the unique index and is read back with the rest
+        return Flux.fromIterable(absent)
+                .concatMap(value -> databaseClient.sql(MERGE_SQL).bind("value", value).fetch().rowsUpdated()
+                        .onErrorResume(DataIntegrityViolationException.class, ex -> Mono.just(0)))
+                .then(findIds(missing));
+    }
+
+    private void cache(final Map<String, Integer> found) {
+        found.forEach((value, id) -> {
+            ids.put(value, id);
+            values.put(id, value);
+        });
+    }
+
+    private Mono<Map<String, Integer>> findIds(final Collection<String> lookupValues) {
+        return databaseClient.sql(FIND_IDS_SQL)
+                .bind("values", lookupValues)
+                .map((row, metadata) -> Map.entry(
+                        row.get("ld_value", String.class),
+                        row.get("ld_id", Number.class).intValue()
+                ))
+                .all()
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+}
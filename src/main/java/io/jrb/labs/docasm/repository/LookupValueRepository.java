@@ -25,16 +25,23 @@ package io.jrb.labs.docasm.repository;
 
 import io.jrb.labs.docasm.model.EntityType;
 import io.jrb.labs.docasm.model.LookupValue;
-import org.springframework.data.repository.reactive.ReactiveCrudRepository;
-import org.springframework.stereotype.Repository;
-import reactor.core.publisher.Flux;
+import io.jrb.labs.docasm.model.LookupValueType;
+import org.springframework.data.repository.Repository;
 import reactor.core.publisher.Mono;
 
-@Repository
-public interface LookupValueRepository extends ReactiveCrudRepository<LookupValue, Long>  {
+import java.util.Collection;
+
+/**
+ * Lookup values with their values encoded through the {@link LookupDictionary}. The generic CRUD methods are left out
+ * on purpose: they would map <code>LookupValue.value</code>, which is not a column, so every read and write goes
+ * through the custom methods that encode and decode it.
+ */
+public interface LookupValueRepository extends Repository<LookupValue, Long>, LookupValueRepositoryCustom {
 
     Mono<Void> deleteByEntityTypeAndEntityId(EntityType entityType, long entityId);
 
-    Flux<LookupValue> findByEntityTypeAndEntityId(EntityType entityType, long entityId);
+    Mono<Integer> deleteByEntityTypeAndEntityIdIn(EntityType entityType, Collection<Long> entityIds);
+
+    Mono<Void> deleteByEntityTypeAndEntityIdAndValueType(EntityType entityType, long entityId, LookupValueType valueType);
 
 }
@@ -0,0 +1,89 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.repository;
+
+import io.jrb.labs.docasm.model.EntityType;
+import io.jrb.labs.docasm.model.LookupValue;
+import io.jrb.labs.docasm.model.LookupValueType;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface LookupValueRepositoryCustom {
+
+    /**
+     * Finds the lookup values of an entity, ordered by identifier, with their values decoded from the dictionary.
+     *
+     * @param entityType the entity type
+     * @param entityId the entity identifier
+     * @return the lookup values
+     */
+    Flux<LookupValue> findByEntityTypeAndEntityId(EntityType entityType, long entityId);
+
+    /**
+     * Finds the lookup values of several entities, ordered by identifier, with their values decoded from the
+     * dictionary.
+     *
+     * @param entityType the entity type
+     * @param entityIds the entity identifiers
+     * @return the lookup values
+     */
+    Flux<LookupValue> findByEntityTypeAndEntityIdIn(EntityType entityType, Collection<Long> entityIds);
+
+    /**
+     * Inserts the given lookup values using multi-row statements.
+     *
+     * @param lookupValues the lookup values to insert
+     * @return the inserted lookup values, in order, with their generated identifiers
+     */
+    Flux<LookupValue> insertAll(List<LookupValue> lookupValues);
+
+    /**
+     * Replaces the value at the given position among the values of one type of an entity, values being ordered by
+     * identifier.
+     *
+     * @param entityType the entity type
+     * @param entityId the entity identifier
+     * @param valueType the value type
+     * @param index the zero-based position of the value
+     * @param value the new value
+     * @return the number of updated rows, zero when there is no value at that position
+     */
+    Mono<Integer> updateValueAt(EntityType entityType, long entityId, LookupValueType valueType, long index, String value);
+
+    /**
+     * Deletes the value at the given position among the values of one type of an entity, values being ordered by
+     * identifier.
+     *
+     * @param entityType the entity type
+     * @param entityId the entity identifier
+     * @param valueType the value type
+     * @param index the zero-based position of the value
+     * @return the number of deleted rows, zero when there is no value at that position
+     */
+    Mono<Integer> deleteValueAt(EntityType entityType, long entityId, LookupValueType valueType, long index);
+
+}
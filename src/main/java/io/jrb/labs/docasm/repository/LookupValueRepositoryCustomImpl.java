@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.repository;
+
+import io.jrb.labs.docasm.model.EntityType;
+import io.jrb.labs.docasm.model.LookupValue;
+import io.jrb.labs.docasm.model.LookupValueType;
+import io.r2dbc.spi.Row;
+import lombok.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class LookupValueRepositoryCustomImpl extends BatchInsertSupport<LookupValueRepositoryCustomImpl.EncodedValue>
+        implements LookupValueRepositoryCustom {
+
+    private static final String FIND_SQL = "SELECT lv_id, lv_entity_type, lv_entity_id, lv_value_type, lv_value_id,"
+            + " ld_value FROM t_lookup_value JOIN t_lookup_dictionary ON ld_id = lv_value_id"
+            + " WHERE lv_entity_type = :entityType AND lv_entity_id";
+    static final String FIND_BY_ENTITY_SQL = FIND_SQL + " = :entityId ORDER BY lv_id";
+    static final String FIND_BY_ENTITIES_SQL = FIND_SQL + " IN (:entityIds) ORDER BY lv_id";
+    private static final String VALUE_AT = "(SELECT lv_id FROM t_lookup_value WHERE lv_entity_type = :entityType"
+            + " AND lv_entity_id = :entityId AND lv_value_type = :valueType ORDER BY lv_id LIMIT 1 OFFSET :index)";
+    static final String UPDATE_VALUE_AT_SQL = "UPDATE t_lookup_value SET lv_value_id = :valueId WHERE lv_id = "
+            + VALUE_AT;
+    static final String DELETE_VALUE_AT_SQL = "DELETE FROM t_lookup_value WHERE lv_id = " + VALUE_AT;
+
+    private final DatabaseClient databaseClient;
+    private final LookupDictionary lookupDictionary;
+
+    public LookupValueRepositoryCustomImpl(
+            final DatabaseClient databaseClient,
+            final LookupDictionary lookupDictionary
+    ) {
+        super(databaseClient, "t_lookup_value", "lv_id", Arrays.asList(
+                column("lv_entity_type", Integer.class, encoded -> encoded.getLookupValue().getEntityType().getCode()),
+                column("lv_entity_id", Long.class, encoded -> encoded.getLookupValue().getEntityId()),
+                column("lv_value_type", Integer.class, encoded -> encoded.getLookupValue().getValueType().getCode()),
+                column("lv_value_id", Integer.class, EncodedValue::getValueId)
+        ));
+        this.databaseClient = databaseClient;
+        this.lookupDictionary = lookupDictionary;
+    }
+
+    @Override
+    public Flux<LookupValue> findByEntityTypeAndEntityId(final EntityType entityType, final long entityId) {
+        return databaseClient.sql(FIND_BY_ENTITY_SQL)
+                .bind("entityType", entityType.getCode())
+                .bind("entityId", entityId)
+                .map((row, metadata) -> readLookupValue(row))
+                .all();
+    }
+
+    @Override
+    public Flux<LookupValue> findByEntityTypeAndEntityIdIn(
+            final EntityType entityType,
+            final Collection<Long> entityIds
+    ) {
+        if (entityIds.isEmpty()) {
+            return Flux.empty();
+        }
+        return databaseClient.sql(FIND_BY_ENTITIES_SQL)
+                .bind("entityType", entityType.getCode())
+                .bind("entityIds", entityIds)
+                .map((row, metadata) -> readLookupValue(row))
+                .all();
+    }
+
+    @Override
+    public Flux<LookupValue> insertAll(final List<LookupValue> lookupValues) {
+        if (lookupValues.isEmpty()) {
+            return Flux.empty();
+        }
+        final List<String> values = lookupValues.stream().map(LookupValue::getValue).collect(Collectors.toList());
+        return lookupDictionary.idsOf(values)
+                .flatMapMany(ids -> super.insertAll(lookupValues.stream()
+                        .map(lookupValue -> new EncodedValue(lookupValue, ids.get(lookupValue.getValue())))
+                        .collect(Collectors.toList())))
+                .map(EncodedValue::getLookupValue);
+    }
+
+    @Override
+    public Mono<Integer> updateValueAt(
+            final EntityType entityType,
+            final long entityId,
+            final LookupValueType valueType,
+            final long index,
+            final String value
+    ) {
+        return lookupDictionary.idsOf(List.of(value))
+                .flatMap(ids -> databaseClient.sql(UPDATE_VALUE_AT_SQL)
+                        .bind("valueId", ids.get(value))
+                        .bind("entityType", entityType.getCode())
+                        .bind("entityId", entityId)
+                        .bind("valueType", valueType.getCode())
+                        .bind("index", index)
+                        .fetch()
+                        .rowsUpdated());
+    }
+
+    @Override
+    public Mono<Integer> deleteValueAt(
+            final EntityType entityType,
+            final long entityId,
+            final LookupValueType valueType,
+            final long index
+    ) {
+        return databaseClient.sql(DELETE_VALUE_AT_SQL)
+                .bind("entityType", entityType.getCode())
+                .bind("entityId", entityId)
+                .bind("valueType", valueType.getCode())
+                .bind("index", index)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    @Override
+    protected EncodedValue withId(final EncodedValue encoded, final long id) {
+        return new EncodedValue(encoded.getLookupValue().toBuilder().id(id).build(), encoded.getValueId());
+    }
+
+    private LookupValue readLookupValue(final Row row) {
+        final int valueId = row.get("lv_value_id", Number.class).intValue();
+        return LookupValue.builder()
+                .id(row.get("lv_id", Number.class).longValue())
+                .entityType(EntityType.fromCode(row.get("lv_entity_type", Number.class).intValue()))
+                .entityId(row.get("lv_entity_id", Number.class).longValue())
+                .valueType(LookupValueType.fromCode(row.get("lv_value_type", Number.class).intValue()))
+                .value(lookupDictionary.canonical(valueId, row.get("ld_value", String.class)))
+                .build();
+    }
+
+    /** A lookup value paired with the dictionary identifier of its value, as written to the table. */
+    @Value
+    static class EncodedValue {
+        LookupValue lookupValue;
+        int valueId;
+    }
+
+}
@@ -65,6 +65,9 @@ public class DocumentResource {
     @JsonView(Projection.Detail.class)
     Instant modifiedOn;
 
+    @JsonView(Projection.Detail.class)
+    Long version;
+
     @JsonView(Projection.Deep.class)
     @Singular
     List<String> tags;
@@ -81,7 +84,8 @@ public class DocumentResource {
                 .createdBy(document.getCreatedBy())
                 .createdOn(document.getCreatedOn())
                 .modifiedBy(document.getModifiedBy())
-                .modifiedOn(document.getModifiedOn());
+                .modifiedOn(document.getModifiedOn())
+                .version(document.getVersion());
     }
 
     @JsonPOJOBuilder(withPrefix = "")
@@ -25,11 +25,23 @@ package io.jrb.labs.docasm.rest;
 
 import com.fasterxml.jackson.annotation.JsonView;
 import com.github.fge.jsonpatch.JsonPatch;
+import io.jrb.labs.docasm.index.FacetField;
+import io.jrb.labs.docasm.index.TagMatch;
 import io.jrb.labs.docasm.model.Projection;
+import io.jrb.labs.docasm.resource.DocumentChange;
+import io.jrb.labs.docasm.resource.DocumentDeleteRequest;
+import io.jrb.labs.docasm.resource.DocumentDeleteResult;
+import io.jrb.labs.docasm.resource.DocumentFacets;
+import io.jrb.labs.docasm.resource.DocumentImportResult;
+import io.jrb.labs.docasm.resource.DocumentNameSuggestion;
 import io.jrb.labs.docasm.resource.DocumentResource;
+import io.jrb.labs.docasm.resource.DocumentSearchPage;
 import io.jrb.labs.docasm.service.DocumentService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -37,13 +49,17 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @RestController
@@ -65,31 +81,115 @@ public class DocumentController {
 
     @DeleteMapping("/{documentGuid}")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public Mono<Void> deleteDocument(@PathVariable final UUID documentGuid) {
-        return documentService.deleteDocument(documentGuid);
+    public Mono<Void> deleteDocument(
+            @PathVariable final UUID documentGuid,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch
+    ) {
+        return Mono.fromSupplier(() -> Optional.ofNullable(DocumentETags.parseVersion(documentGuid, ifMatch)))
+                .flatMap(version -> documentService.deleteDocument(documentGuid, version.orElse(null)));
+    }
+
+    @DeleteMapping
+    public Mono<DocumentDeleteResult> deleteDocuments(@RequestBody final DocumentDeleteRequest request) {
+        return documentService.deleteDocuments(request);
     }
 
     @GetMapping("/{documentGuid}")
-    public Mono<MappingJacksonValue> getDocumentById(
+    public Mono<ResponseEntity<MappingJacksonValue>> getDocumentById(
             @PathVariable final UUID documentGuid,
-            @RequestParam(name = "projection", defaultValue = "DETAILS") final Projection projection
+            @RequestParam(name = "projection", defaultValue = "DETAILS") final Projection projection,
+            final ServerWebExchange exchange
     ) {
-        return documentService.findDocumentByGuid(documentGuid, projection)
-                .map(resource -> wrapWithView(resource, projection));
+        return documentService.findDocumentVersion(documentGuid)
+                .map(version -> DocumentETags.of(version, projection))
+                .flatMap(eTag -> exchange.checkNotModified(eTag)
+                        ? Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).<MappingJacksonValue>build())
+                        : documentService.findDocumentByGuid(documentGuid, projection)
+                                .map(resource -> ResponseEntity.ok()
+                                        .eTag(eTag)
+                                        .body(wrapWithView(resource, projection))));
     }
 
     @GetMapping
+    public Mono<MappingJacksonValue> listDocuments(
+            @RequestParam(name = "cursor", required = false) final String cursor,
+            @RequestParam(name = "limit", required = false) final Integer limit,
+            @RequestParam(name = "projection", defaultValue = "SUMMARY") final Projection projection,
+            @RequestParam(name = "tags", required = false) final List<String> tags,
+            @RequestParam(name = "match", defaultValue = "all") final String match
+    ) {
+        return Mono.defer(() -> (tags == null || tags.isEmpty())
+                ? documentService.listDocuments(cursor, limit, projection)
+                : documentService.listDocumentsByTags(tags, TagMatch.of(match), cursor, limit, projection))
+                .map(page -> wrapWithView(page, projection));
+    }
+
+    @GetMapping("/facets")
+    public Mono<DocumentFacets> findFacets(
+            @RequestParam(name = "field") final String field,
+            @RequestParam(name = "tags", required = false) final List<String> tags,
+            @RequestParam(name = "match", defaultValue = "all") final String match
+    ) {
+        return Mono.defer(() -> documentService.findFacets(FacetField.of(field), tags, TagMatch.of(match)));
+    }
+
+    @GetMapping("/search")
+    public Mono<DocumentSearchPage> searchDocuments(
+            @RequestParam(name = "q") final String query,
+            @RequestParam(name = "offset", required = false) final Integer offset,
+            @RequestParam(name = "limit", required = false) final Integer limit
+    ) {
+        return documentService.searchDocuments(query, offset, limit);
+    }
+
+    @GetMapping("/suggest")
+    public Mono<List<DocumentNameSuggestion>> suggestDocumentNames(
+            @RequestParam(name = "prefix", defaultValue = "") final String prefix,
+            @RequestParam(name = "limit", required = false) final Integer limit
+    ) {
+        return documentService.suggestDocumentNames(prefix, limit);
+    }
+
+    @GetMapping(
+            path = "/changes",
+            produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE }
+    )
+    public Flux<DocumentChange> streamChanges() {
+        return documentService.streamChanges();
+    }
+
+    @GetMapping(
+            path = "/stream",
+            produces = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.TEXT_EVENT_STREAM_VALUE }
+    )
     @JsonView(Projection.Summary.class)
-    public Flux<DocumentResource> listDocuments() {
+    public Flux<DocumentResource> streamDocuments() {
         return documentService.listAllDocuments();
     }
 
+    @PostMapping(
+            path = "/bulk",
+            consumes = MediaType.APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE
+    )
+    public Flux<DocumentImportResult> importDocuments(@RequestBody final Flux<String> documentLines) {
+        return documentService.importDocuments(documentLines);
+    }
+
     @PatchMapping("/{documentGuid}")
-    public Mono<DocumentResource> updateDocument(
+    public Mono<ResponseEntity<DocumentResource>> updateDocument(
             @PathVariable final UUID documentGuid,
-            @RequestBody final JsonPatch documentPatch
+            @RequestBody final JsonPatch documentPatch,
+            @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) final String ifMatch
     ) {
-        return documentService.updateDocument(documentGuid, documentPatch);
+        return Mono.fromSupplier(() -> Optional.ofNullable(DocumentETags.parseVersion(documentGuid, ifMatch)))
+                .flatMap(version -> documentService.updateDocument(documentGuid, documentPatch, version.orElse(null)))
+                .flatMap(resource -> Mono.justOrEmpty(resource.getVersion())
+                        .switchIfEmpty(Mono.defer(() -> documentService.findDocumentVersion(documentGuid)))
+                        .map(version -> ResponseEntity.ok()
+                                .eTag(DocumentETags.of(version, Projection.DETAILS))
+                                .body(resource))
+                        .defaultIfEmpty(ResponseEntity.ok().body(resource)));
     }
 
     private <R> MappingJacksonValue wrapWithView(final R resource, final Projection projection) {
@@ -0,0 +1,65 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.rest;
+
+import io.jrb.labs.docasm.model.Projection;
+import io.jrb.labs.docasm.service.exception.DocumentVersionConflictException;
+
+import java.util.UUID;
+
+/**
+ * Builds strong entity tags for a document representation; each projection of a document gets its own tag, and all
+ * of them start with the document version so that any of them can be sent back in If-Match.
+ */
+final class DocumentETags {
+
+    private DocumentETags() {
+    }
+
+    static String of(final long version, final Projection projection) {
+        return "\"" + version + "-" + projection.name().toLowerCase() + "\"";
+    }
+
+    /**
+     * Extracts the document version from an If-Match header; a missing header or <code>*</code> matches any version.
+     * Weak tags never match, as If-Match requires strong comparison.
+     */
+    static Long parseVersion(final UUID documentGuid, final String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        final String eTag = ifMatch.split(",")[0].trim();
+        if (eTag.startsWith("W/") || eTag.length() < 2 || !eTag.startsWith("\"") || !eTag.endsWith("\"")) {
+            throw new DocumentVersionConflictException(documentGuid);
+        }
+        final String value = eTag.substring(1, eTag.length() - 1);
+        final int separator = value.indexOf('-');
+        try {
+            return Long.parseLong((separator < 0) ? value : value.substring(0, separator));
+        } catch (final NumberFormatException ex) {
+            throw new DocumentVersionConflictException(documentGuid);
+        }
+    }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.service;
+
+import io.jrb.labs.docasm.config.DocasmProperties;
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.resource.DocumentChange;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans committed document mutations out to change feed subscribers. Every subscriber reads from its own bounded
+ * buffer, filled on a worker of the change feed scheduler; the committing thread only hands each event over to those
+ * workers, so a slow consumer can lose its own events or its connection but never holds up a write.
+ */
+@Component
+@Slf4j
+class DocumentChangeFeed implements DocumentMutationListener {
+
+    private final Sinks.Many<DocumentChange> sink = Sinks.many().multicast().directBestEffort();
+    private final Scheduler scheduler;
+    private final int bufferSize;
+    private final DocasmProperties.ChangeOverflow overflow;
+    private final Counter droppedCounter;
+    private final Counter disconnectedCounter;
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    DocumentChangeFeed(
+            final DocasmProperties docasmProperties,
+            final MeterRegistry meterRegistry,
+            final Scheduler changeFeedScheduler
+    ) {
+        this.scheduler = changeFeedScheduler;
+        this.bufferSize = docasmProperties.getChanges().getBufferSize();
+        this.overflow = docasmProperties.getChanges().getOverflow();
+        this.droppedCounter = Counter.builder("documents.changes.dropped")
+                .description("Change events evicted from the buffer of a slow subscriber")
+                .register(meterRegistry);
+        this.disconnectedCounter = Counter.builder("documents.changes.disconnected")
+                .description("Change feed subscribers disconnected because their buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("documents.changes.subscribers", subscribers, AtomicInteger::get)
+                .description("Open change feed subscriptions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Streams the changes committed from now on. Nothing is replayed, so a subscriber that missed events resumes from
+     * the document listing.
+     *
+     * @return the changes, ending when the subscriber falls too far behind with the disconnect overflow strategy
+     */
+    Flux<DocumentChange> changes() {
+        final Flux<DocumentChange> delivered = sink.asFlux().publishOn(scheduler);
+        final Flux<DocumentChange> buffered = (overflow == DocasmProperties.ChangeOverflow.DROP_OLDEST)
+                ? delivered.onBackpressureBuffer(bufferSize, change -> droppedCounter.increment(),
+                        BufferOverflowStrategy.DROP_OLDEST)
+                : delivered.onBackpressureBuffer(bufferSize, change -> disconnectedCounter.increment(),
+                        BufferOverflowStrategy.ERROR)
+                        .onErrorResume(Exceptions::isOverflow, ex -> {
+                            log.warn("Disconnecting change feed subscriber after {} unread events", bufferSize);
+                            return Mono.empty();
+                        });
+        return buffered
+                .doOnSubscribe(subscription -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    @Override
+    public void onMutation(final DocumentMutation mutation) {
+        final DocumentChange change = toChange(mutation);
+        // a sink takes one emission at a time; each emission only appends to the subscriber buffers
+        synchronized (sink) {
+            sink.tryEmitNext(change);
+        }
+    }
+
+    private static DocumentChange toChange(final DocumentMutation mutation) {
+        final Document document = (mutation.getDocument() != null) ? mutation.getDocument() : mutation.getPrevious();
+        return DocumentChange.builder()
+                .event(DocumentChange.Event.valueOf(mutation.getType().name()))
+                .guid(mutation.getGuid())
+                .version((document != null) ? document.getVersion() : null)
+                .name((document != null) ? document.getName() : null)
+                .type((document != null) ? document.getType() : null)
+                .tags(mutation.getTags())
+                .changedOn(Instant.now())
+                .build();
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.service;
+
+import io.jrb.labs.docasm.model.Document;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * A committed change to a document, as seen by in-memory views of the documents.
+ */
+@Value
+@Builder
+public class DocumentMutation {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED
+    }
+
+    Type type;
+
+    long documentId;
+
+    UUID guid;
+
+    /** The document columns after the change; null when the document was deleted. */
+    Document document;
+
+    /** The document columns before the change; null when the document was created or its prior state is unknown. */
+    Document previous;
+
+    /** The tags after the change; null when the document was deleted or its tags did not change. */
+    List<String> tags;
+
+    /** The tags before the change; null when the document was created, its tags did not change or were not read. */
+    List<String> previousTags;
+
+    /**
+     * The section names after the change; null when the document was deleted or when neither its name, type nor
+     * sections changed.
+     */
+    List<String> sectionNames;
+
+    public static DocumentMutation deleted(final Document document, final List<String> previousTags) {
+        return DocumentMutation.builder()
+                .type(Type.DELETED)
+                .documentId(document.getId())
+                .guid(document.getGuid())
+                .previous(document)
+                .previousTags(previousTags)
+                .build();
+    }
+
+}
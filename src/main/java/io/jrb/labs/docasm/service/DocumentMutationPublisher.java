@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.service;
+
+import io.jrb.labs.docasm.repository.TransactionHooks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Hands document mutations to every {@link DocumentMutationListener} after the surrounding transaction commits, so
+ * that listeners never see changes that were rolled back.
+ */
+@Component
+@Slf4j
+class DocumentMutationPublisher {
+
+    private final ObjectProvider<DocumentMutationListener> listenerProvider;
+    private volatile List<DocumentMutationListener> listeners;
+
+    DocumentMutationPublisher(final ObjectProvider<DocumentMutationListener> listenerProvider) {
+        this.listenerProvider = listenerProvider;
+    }
+
+    Mono<Void> publishAfterCommit(final DocumentMutation mutation) {
+        return TransactionHooks.afterCommit(() -> publish(mutation));
+    }
+
+    Mono<Void> publishAfterCommit(final List<DocumentMutation> mutations) {
+        return mutations.isEmpty()
+                ? Mono.empty()
+                : TransactionHooks.afterCommit(() -> mutations.forEach(this::publish));
+    }
+
+    private List<DocumentMutationListener> listeners() {
+        if (listeners == null) {
+            listeners = listenerProvider.orderedStream().collect(Collectors.toList());
+        }
+        return listeners;
+    }
+
+    private void publish(final DocumentMutation mutation) {
+        for (final DocumentMutationListener listener : listeners()) {
+            try {
+                listener.onMutation(mutation);
+            } catch (final RuntimeException ex) {
+                log.error("Document mutation listener {} failed on {} {}",
+                        listener.getClass().getSimpleName(), mutation.getType(), mutation.getGuid(), ex);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,397 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.model.DocumentSectionType;
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.resource.DocumentSectionResource;
+import io.jrb.labs.docasm.service.exception.InvalidRequestException;
+import org.springframework.util.StringUtils;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A JSON patch compiled into the document columns it changes and the section and tag rows it adds, updates or
+ * removes, so that it can be applied with targeted statements instead of loading, patching and saving the document.
+ * Positions in {@code /sections} and {@code /tags} follow identifier order, as in the DEEP projection.
+ * <p>
+ * Only {@code add}, {@code remove} and {@code replace} compile. A patch using other operations on document fields
+ * only is left to the in-memory path; one using them on sections or tags is rejected.
+ */
+final class DocumentPatchPlan {
+
+    private static final String ADD = "add";
+    private static final String REMOVE = "remove";
+    private static final String REPLACE = "replace";
+    private static final String APPEND = "-";
+
+    enum StepType {
+        ADD_TAGS,
+        REPLACE_TAG,
+        REMOVE_TAG,
+        REPLACE_TAGS,
+        ADD_SECTIONS,
+        UPDATE_SECTION,
+        REMOVE_SECTION,
+        REPLACE_SECTIONS
+    }
+
+    private final ObjectMapper objectMapper;
+    private final List<Step> steps = new ArrayList<>();
+    private String name;
+    private DocumentType type;
+    private boolean touchesCollections;
+    private String unsupported;
+
+    private DocumentPatchPlan(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Compiles the operations of a JSON patch.
+     *
+     * @param operations the patch, as its JSON array of operations
+     * @param objectMapper the mapper used to read operation values
+     * @return the plan, or empty if the patch has to be applied in memory
+     * @throws InvalidRequestException if the patch is invalid
+     */
+    static Optional<DocumentPatchPlan> compile(final JsonNode operations, final ObjectMapper objectMapper) {
+        final DocumentPatchPlan plan = new DocumentPatchPlan(objectMapper);
+        for (final JsonNode operation : operations) {
+            plan.compileOperation(operation.path("op").asText(), operation.path("path").asText(), operation.get("value"));
+        }
+        if (plan.unsupported == null) {
+            return Optional.of(plan);
+        } else if (plan.touchesCollections) {
+            throw new InvalidRequestException("Unsupported patch operation " + plan.unsupported);
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    String getName() {
+        return name;
+    }
+
+    DocumentType getType() {
+        return type;
+    }
+
+    List<Step> getSteps() {
+        return steps;
+    }
+
+    boolean changesSections() {
+        return hasStep(EnumSet.of(StepType.ADD_SECTIONS, StepType.UPDATE_SECTION, StepType.REMOVE_SECTION,
+                StepType.REPLACE_SECTIONS));
+    }
+
+    boolean changesTags() {
+        return hasStep(EnumSet.of(StepType.ADD_TAGS, StepType.REPLACE_TAG, StepType.REMOVE_TAG, StepType.REPLACE_TAGS));
+    }
+
+    Document applyTo(final Document document, final long version, final Instant modifiedOn) {
+        return document.toBuilder()
+                .name(name != null ? name : document.getName())
+                .type(type != null ? type : document.getType())
+                .modifiedOn(modifiedOn)
+                .version(version)
+                .build();
+    }
+
+    private void compileOperation(final String op, final String path, final JsonNode value) {
+        final List<String> segments = parsePath(path);
+        final boolean supportedOp = ADD.equals(op) || REMOVE.equals(op) || REPLACE.equals(op);
+        final String root = segments.isEmpty() ? "" : segments.get(0);
+        if ("tags".equals(root) || "sections".equals(root)) {
+            touchesCollections = true;
+        }
+        if (!supportedOp) {
+            unsupported(op, path);
+            return;
+        }
+
+        switch (root) {
+            case "name":
+                if (segments.size() != 1) {
+                    unsupported(op, path);
+                } else {
+                    name = requireText(op, path, value);
+                }
+                break;
+            case "type":
+                if (segments.size() != 1) {
+                    unsupported(op, path);
+                } else if (REMOVE.equals(op)) {
+                    throw new InvalidRequestException(path + " cannot be removed");
+                } else {
+                    requireValue(op, path, value);
+                    type = readValue(path, value, DocumentType.class);
+                }
+                break;
+            case "tags":
+                compileTagOperation(op, path, segments, value);
+                break;
+            case "sections":
+                compileSectionOperation(op, path, segments, value);
+                break;
+            default:
+                unsupported(op, path);
+        }
+    }
+
+    private void compileTagOperation(final String op, final String path, final List<String> segments,
+                                     final JsonNode value) {
+        if (segments.size() == 1) {
+            final List<String> tags = REMOVE.equals(op)
+                    ? Collections.emptyList()
+                    : readList(op, path, value, node -> requireText(op, path, node));
+            steps.add(Step.replaceTags(tags));
+        } else if (segments.size() == 2 && APPEND.equals(segments.get(1)) && ADD.equals(op)) {
+            final String tag = requireText(op, path, value);
+            final Step last = lastStep();
+            if (last != null && last.getType() == StepType.ADD_TAGS) {
+                last.values.add(tag);
+            } else {
+                steps.add(Step.addTags(tag));
+            }
+        } else if (segments.size() == 2 && REPLACE.equals(op)) {
+            steps.add(Step.replaceTag(parseIndex(path, segments.get(1)), requireText(op, path, value)));
+        } else if (segments.size() == 2 && REMOVE.equals(op)) {
+            steps.add(Step.removeTag(parseIndex(path, segments.get(1))));
+        } else {
+            unsupported(op, path);
+        }
+    }
+
+    private void compileSectionOperation(final String op, final String path, final List<String> segments,
+                                         final JsonNode value) {
+        if (segments.size() == 1) {
+            final List<DocumentSectionResource> sections = REMOVE.equals(op)
+                    ? Collections.emptyList()
+                    : readList(op, path, value, node -> requireSection(path, node));
+            steps.add(Step.replaceSections(sections));
+        } else if (segments.size() == 2 && APPEND.equals(segments.get(1)) && ADD.equals(op)) {
+            requireValue(op, path, value);
+            final DocumentSectionResource section = requireSection(path, value);
+            final Step last = lastStep();
+            if (last != null && last.getType() == StepType.ADD_SECTIONS) {
+                last.sections.add(section);
+            } else {
+                steps.add(Step.addSections(section));
+            }
+        } else if (segments.size() == 2 && REPLACE.equals(op)) {
+            requireValue(op, path, value);
+            final DocumentSectionResource section = requireSection(path, value);
+            steps.add(Step.updateSection(parseIndex(path, segments.get(1)), section.getName(), section.getType()));
+        } else if (segments.size() == 2 && REMOVE.equals(op)) {
+            steps.add(Step.removeSection(parseIndex(path, segments.get(1))));
+        } else if (segments.size() == 3 && !REMOVE.equals(op) && "name".equals(segments.get(2))) {
+            steps.add(Step.updateSection(parseIndex(path, segments.get(1)), requireText(op, path, value), null));
+        } else if (segments.size() == 3 && !REMOVE.equals(op) && "type".equals(segments.get(2))) {
+            requireValue(op, path, value);
+            final DocumentSectionType sectionType = readValue(path, value, DocumentSectionType.class);
+            steps.add(Step.updateSection(parseIndex(path, segments.get(1)), null, sectionType));
+        } else {
+            unsupported(op, path);
+        }
+    }
+
+    private Step lastStep() {
+        return steps.isEmpty() ? null : steps.get(steps.size() - 1);
+    }
+
+    private boolean hasStep(final Set<StepType> types) {
+        return steps.stream().anyMatch(step -> types.contains(step.getType()));
+    }
+
+    private void unsupported(final String op, final String path) {
+        if (unsupported == null) {
+            unsupported = op + " " + path;
+        }
+    }
+
+    private DocumentSectionResource requireSection(final String path, final JsonNode node) {
+        final DocumentSectionResource section = readValue(path, node, DocumentSectionResource.class);
+        if (!StringUtils.hasText(section.getName()) || section.getType() == null) {
+            throw new InvalidRequestException("A section at " + path + " requires a name and a type");
+        }
+        return section;
+    }
+
+    private <T> List<T> readList(final String op, final String path, final JsonNode value,
+                                 final Function<JsonNode, T> reader) {
+        requireValue(op, path, value);
+        if (!value.isArray()) {
+            throw new InvalidRequestException("The value of " + op + " " + path + " must be an array");
+        }
+        final List<T> items = new ArrayList<>();
+        value.forEach(node -> items.add(reader.apply(node)));
+        return items;
+    }
+
+    private <T> T readValue(final String path, final JsonNode value, final Class<T> type) {
+        try {
+            return objectMapper.treeToValue(value, type);
+        } catch (final JsonProcessingException ex) {
+            throw new InvalidRequestException("Invalid value for " + path + ": " + ex.getOriginalMessage());
+        }
+    }
+
+    private static void requireValue(final String op, final String path, final JsonNode value) {
+        if (value == null || value.isNull()) {
+            throw new InvalidRequestException(op + " " + path + " requires a value");
+        }
+    }
+
+    private static String requireText(final String op, final String path, final JsonNode value) {
+        if (REMOVE.equals(op)) {
+            throw new InvalidRequestException(path + " cannot be removed");
+        }
+        if (value == null || !value.isTextual() || !StringUtils.hasText(value.asText())) {
+            throw new InvalidRequestException("The value of " + op + " " + path + " must be a non-empty string");
+        }
+        return value.asText();
+    }
+
+    private static long parseIndex(final String path, final String segment) {
+        try {
+            final long index = Long.parseLong(segment);
+            if (index >= 0) {
+                return index;
+            }
+        } catch (final NumberFormatException ex) {
+            // reported below
+        }
+        throw new InvalidRequestException("Invalid position in " + path);
+    }
+
+    private static List<String> parsePath(final String path) {
+        if (!path.startsWith("/")) {
+            return Collections.emptyList();
+        }
+        return Arrays.stream(path.substring(1).split("/", -1))
+                .map(segment -> segment.replace("~1", "/").replace("~0", "~"))
+                .collect(Collectors.toList());
+    }
+
+    static final class Step {
+
+        private final StepType type;
+        private final long index;
+        private final List<String> values = new ArrayList<>();
+        private final List<DocumentSectionResource> sections = new ArrayList<>();
+        private final String sectionName;
+        private final DocumentSectionType sectionType;
+
+        private Step(final StepType type, final long index, final String sectionName,
+                     final DocumentSectionType sectionType) {
+            this.type = type;
+            this.index = index;
+            this.sectionName = sectionName;
+            this.sectionType = sectionType;
+        }
+
+        static Step addTags(final String tag) {
+            final Step step = new Step(StepType.ADD_TAGS, 0L, null, null);
+            step.values.add(tag);
+            return step;
+        }
+
+        static Step replaceTag(final long index, final String tag) {
+            final Step step = new Step(StepType.REPLACE_TAG, index, null, null);
+            step.values.add(tag);
+            return step;
+        }
+
+        static Step removeTag(final long index) {
+            return new Step(StepType.REMOVE_TAG, index, null, null);
+        }
+
+        static Step replaceTags(final List<String> tags) {
+            final Step step = new Step(StepType.REPLACE_TAGS, 0L, null, null);
+            step.values.addAll(tags);
+            return step;
+        }
+
+        static Step addSections(final DocumentSectionResource section) {
+            final Step step = new Step(StepType.ADD_SECTIONS, 0L, null, null);
+            step.sections.add(section);
+            return step;
+        }
+
+        static Step updateSection(final long index, final String name, final DocumentSectionType type) {
+            return new Step(StepType.UPDATE_SECTION, index, name, type);
+        }
+
+        static Step removeSection(final long index) {
+            return new Step(StepType.REMOVE_SECTION, index, null, null);
+        }
+
+        static Step replaceSections(final List<DocumentSectionResource> sections) {
+            final Step step = new Step(StepType.REPLACE_SECTIONS, 0L, null, null);
+            step.sections.addAll(sections);
+            return step;
+        }
+
+        StepType getType() {
+            return type;
+        }
+
+        long getIndex() {
+            return index;
+        }
+
+        List<String> getValues() {
+            return values;
+        }
+
+        List<DocumentSectionResource> getSections() {
+            return sections;
+        }
+
+        String getSectionName() {
+            return sectionName;
+        }
+
+        DocumentSectionType getSectionType() {
+            return sectionType;
+        }
+
+    }
+
+}
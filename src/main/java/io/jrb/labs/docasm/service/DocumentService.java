@@ -24,23 +24,128 @@
 package io.jrb.labs.docasm.service;
 
 import com.github.fge.jsonpatch.JsonPatch;
+import io.jrb.labs.docasm.index.FacetField;
+import io.jrb.labs.docasm.index.TagMatch;
 import io.jrb.labs.docasm.model.Projection;
+import io.jrb.labs.docasm.resource.DocumentChange;
+import io.jrb.labs.docasm.resource.DocumentDeleteRequest;
+import io.jrb.labs.docasm.resource.DocumentDeleteResult;
+import io.jrb.labs.docasm.resource.DocumentFacets;
+import io.jrb.labs.docasm.resource.DocumentImportResult;
+import io.jrb.labs.docasm.resource.DocumentNameSuggestion;
+import io.jrb.labs.docasm.resource.DocumentPage;
 import io.jrb.labs.docasm.resource.DocumentResource;
+import io.jrb.labs.docasm.resource.DocumentSearchPage;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface DocumentService {
 
     Mono<DocumentResource> createDocument(DocumentResource document);
 
-    Mono<Void> deleteDocument(UUID documentGuid);
+    /**
+     * Deletes a document with its sections and tags.
+     *
+     * @param documentGuid the document guid
+     * @param expectedVersion the version the client last saw, or null to delete whatever the current version
+     * @return completion, or a version conflict error when the document is at another version
+     */
+    Mono<Void> deleteDocument(UUID documentGuid, Long expectedVersion);
+
+    /**
+     * Deletes every document matching the request, with its sections and tags, using set-based statements in a single
+     * transaction.
+     *
+     * @param request the guids and/or type of the documents to delete; at least one criterion is required
+     * @return the number of deleted rows
+     */
+    Mono<DocumentDeleteResult> deleteDocuments(DocumentDeleteRequest request);
 
     Mono<DocumentResource> findDocumentByGuid(UUID guid, Projection projection);
 
+    /**
+     * Counts the documents per value of a field from in-memory counters, optionally among the documents matching a
+     * tag filter.
+     *
+     * @param field the field whose values are counted
+     * @param tags the tags of the filter, or null or empty to count every document
+     * @param match how the tags of the filter combine
+     * @return the document count per value, largest first
+     */
+    Mono<DocumentFacets> findFacets(FacetField field, Collection<String> tags, TagMatch match);
+
+    /**
+     * Finds the version of a document, which changes whenever the document, its sections or its tags change, without
+     * assembling it.
+     *
+     * @param guid the document guid
+     * @return the version of the document
+     */
+    Mono<Long> findDocumentVersion(UUID guid);
+
+    Flux<DocumentImportResult> importDocuments(Flux<String> documentLines);
+
     Flux<DocumentResource> listAllDocuments();
 
-    Mono<DocumentResource> updateDocument(UUID guid, JsonPatch patch);
+    Mono<DocumentPage> listDocuments(String cursor, Integer limit, Projection projection);
+
+    /**
+     * Lists the documents carrying all or any of the given tags, in identifier order, using the in-memory tag index.
+     *
+     * @param tags the tags
+     * @param match how the tags combine
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit the page size, or null for the default
+     * @param projection the projection of the listed documents
+     * @return the page of matching documents
+     */
+    Mono<DocumentPage> listDocumentsByTags(
+            Collection<String> tags,
+            TagMatch match,
+            String cursor,
+            Integer limit,
+            Projection projection
+    );
+
+    /**
+     * Runs a ranked full-text query over document and section names.
+     *
+     * @param query the query, in simple query syntax
+     * @param offset the number of hits to skip, or null for none
+     * @param limit the page size, or null for the default
+     * @return the page of hits by descending score
+     */
+    Mono<DocumentSearchPage> searchDocuments(String query, Integer offset, Integer limit);
+
+    /**
+     * Streams the document changes committed from now on, without replaying earlier ones. Each subscriber has a
+     * bounded buffer; when it fills, the subscriber either loses its oldest events or is disconnected, as configured.
+     *
+     * @return the committed changes
+     */
+    Flux<DocumentChange> streamChanges();
+
+    /**
+     * Suggests document names starting with a prefix, ignoring case, from an in-memory trie.
+     *
+     * @param prefix the prefix typed so far
+     * @param limit the maximum number of names, or null for the configured maximum
+     * @return the names, most recently modified first
+     */
+    Mono<List<DocumentNameSuggestion>> suggestDocumentNames(String prefix, Integer limit);
+
+    /**
+     * Applies a JSON patch to a document, its sections and its tags, and increments its version.
+     *
+     * @param guid the document guid
+     * @param patch the patch
+     * @param expectedVersion the version the patch was made against, or null to patch the current version
+     * @return the updated document, or a version conflict error when the document is at another version
+     */
+    Mono<DocumentResource> updateDocument(UUID guid, JsonPatch patch, Long expectedVersion);
 
 }
@@ -23,11 +23,20 @@
  */
 package io.jrb.labs.docasm.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.fge.jsonpatch.JsonPatch;
 import io.jrb.labs.common.service.crud.CrudServiceSupport;
+import io.jrb.labs.docasm.config.DocasmProperties;
+import io.jrb.labs.docasm.index.DocumentSearchIndex;
+import io.jrb.labs.docasm.index.FacetField;
+import io.jrb.labs.docasm.index.NameSuggester;
+import io.jrb.labs.docasm.index.TagIndex;
+import io.jrb.labs.docasm.index.TagMatch;
+import io.jrb.labs.docasm.index.TypeIndex;
 import io.jrb.labs.docasm.model.Document;
 import io.jrb.labs.docasm.model.DocumentSection;
+import io.jrb.labs.docasm.model.DocumentType;
 import io.jrb.labs.docasm.model.EntityType;
 import io.jrb.labs.docasm.model.LookupValue;
 import io.jrb.labs.docasm.model.LookupValueType;
@@ -35,18 +44,47 @@ import io.jrb.labs.docasm.model.Projection;
 import io.jrb.labs.docasm.repository.DocumentRepository;
 import io.jrb.labs.docasm.repository.DocumentSectionRepository;
 import io.jrb.labs.docasm.repository.LookupValueRepository;
+import io.jrb.labs.docasm.repository.TransactionHooks;
+import io.jrb.labs.docasm.resource.DocumentChange;
+import io.jrb.labs.docasm.resource.DocumentDeleteRequest;
+import io.jrb.labs.docasm.resource.DocumentDeleteResult;
+import io.jrb.labs.docasm.resource.DocumentFacetCount;
+import io.jrb.labs.docasm.resource.DocumentFacets;
+import io.jrb.labs.docasm.resource.DocumentImportResult;
+import io.jrb.labs.docasm.resource.DocumentNameSuggestion;
+import io.jrb.labs.docasm.resource.DocumentPage;
 import io.jrb.labs.docasm.resource.DocumentResource;
+import io.jrb.labs.docasm.resource.DocumentSearchPage;
 import io.jrb.labs.docasm.resource.DocumentSectionResource;
+import io.jrb.labs.docasm.service.exception.DocumentVersionConflictException;
+import io.jrb.labs.docasm.service.exception.InvalidRequestException;
+import lombok.Value;
 import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.ReactiveTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.util.StringUtils;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -55,87 +93,376 @@ public class DocumentServiceImpl extends CrudServiceSupport<Document, Document.D
     private final DocumentRepository documentRepository;
     private final DocumentSectionRepository documentSectionRepository;
     private final LookupValueRepository lookupValueRepository;
+    private final DocumentGuidCache documentGuidCache;
+    private final DocumentMutationPublisher mutationPublisher;
+    private final DocumentChangeFeed changeFeed;
+    private final TagIndex tagIndex;
+    private final TypeIndex typeIndex;
+    private final DocumentSearchIndex searchIndex;
+    private final NameSuggester nameSuggester;
+    private final ObjectMapper objectMapper;
+    private final TransactionalOperator transactionalOperator;
+    private final DocasmProperties.BulkDelete bulkDeleteProperties;
+    private final DocasmProperties.BulkImport bulkImportProperties;
+    private final DocasmProperties.Listing listingProperties;
+    private final DocasmProperties.Search searchProperties;
 
     public DocumentServiceImpl(
             final DocumentRepository documentRepository,
             final DocumentSectionRepository documentSectionRepository,
             final LookupValueRepository lookupValueRepository,
-            final ObjectMapper objectMapper
+            final DocumentGuidCache documentGuidCache,
+            final DocumentMutationPublisher mutationPublisher,
+            final DocumentChangeFeed changeFeed,
+            final TagIndex tagIndex,
+            final TypeIndex typeIndex,
+            final DocumentSearchIndex searchIndex,
+            final NameSuggester nameSuggester,
+            final ObjectMapper objectMapper,
+            final ReactiveTransactionManager transactionManager,
+            final DocasmProperties docasmProperties
     ) {
         super(Document.class, documentRepository, objectMapper);
         this.documentRepository = documentRepository;
         this.documentSectionRepository = documentSectionRepository;
         this.lookupValueRepository = lookupValueRepository;
+        this.documentGuidCache = documentGuidCache;
+        this.mutationPublisher = mutationPublisher;
+        this.changeFeed = changeFeed;
+        this.tagIndex = tagIndex;
+        this.typeIndex = typeIndex;
+        this.searchIndex = searchIndex;
+        this.nameSuggester = nameSuggester;
+        this.objectMapper = objectMapper;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        this.bulkDeleteProperties = docasmProperties.getBulkDelete();
+        this.bulkImportProperties = docasmProperties.getBulkImport();
+        this.listingProperties = docasmProperties.getListing();
+        this.searchProperties = docasmProperties.getSearch();
     }
 
     @Override
     @Transactional
     public Mono<DocumentResource> createDocument(final DocumentResource document) {
-        return createEntity(Document.fromResource(document))
-                .zipWhen(documentEntity -> Mono.zip(
-                        createLookupValues(documentEntity.getId(), LookupValueType.TAG, document.getTags()),
-                        createDocumentSections(documentEntity.getId(), document.getSections())
-                ))
-                .map(tuple -> DocumentResource.fromEntity(tuple.getT1())
-                        .tags(tuple.getT2().getT1())
-                        .sections(tuple.getT2().getT2())
-                        .build());
+        return createDocumentAggregate(document);
     }
 
     @Override
     @Transactional
-    public Mono<Void> deleteDocument(final UUID documentGuid) {
-        return deleteEntity(documentGuid, documentEntity -> {
-            final long documentId = documentEntity.getId();
-            return documentSectionRepository.deleteByDocumentId(documentId)
-                    .then(lookupValueRepository.deleteByEntityTypeAndEntityId(EntityType.DOCUMENT, documentId))
-                    .then(documentRepository.deleteById(documentId))
-                    .then();
-        });
+    public Mono<Void> deleteDocument(final UUID documentGuid, final Long expectedVersion) {
+        return TransactionHooks.afterCompletion(() -> documentGuidCache.invalidate(documentGuid))
+                .then(deleteEntity(documentGuid, documentEntity -> {
+                    final long documentId = documentEntity.getId();
+                    final Mono<Integer> deleteDocument = (expectedVersion != null)
+                            ? documentRepository.deleteByIdAndVersion(documentId, expectedVersion)
+                            : documentRepository.deleteById(documentId).thenReturn(1);
+                    return findTags(documentId)
+                            .flatMap(tags -> lookupValueRepository
+                                    .deleteByEntityTypeAndEntityId(EntityType.DOCUMENT, documentId)
+                                    .then(deleteDocument)
+                                    .flatMap(count -> (count > 0)
+                                            ? mutationPublisher.publishAfterCommit(
+                                                    DocumentMutation.deleted(documentEntity, tags))
+                                            : Mono.<Void>error(new DocumentVersionConflictException(documentGuid))));
+                }));
     }
 
     @Override
     @Transactional
-    public Mono<DocumentResource> findDocumentByGuid(final UUID documentGuid, Projection projection) {
-        return findEntityByGuid(documentGuid)
-                .zipWhen(document -> Mono.zip(
-                        findDocumentSectionList(document.getId(), projection),
-                        findValueList(document.getId(), projection)
-                ))
-                .map(tuple -> {
-                    final DocumentResource.DocumentResourceBuilder builder = DocumentResource.fromEntity(tuple.getT1());
-                    tuple.getT2().getT1().forEach(documentSection -> {
-                        final DocumentSectionResource section =
-                                DocumentSectionResource.fromEntity(documentSection).build();
-                        builder.section(section);
-                    });
-                    tuple.getT2().getT2().forEach(lookupValue -> {
-                        final String value = lookupValue.getValue();
-                        switch (lookupValue.getValueType()) {
-                            case TAG:
-                                builder.tag(value);
-                                break;
-                        }
-                    });
-                    return builder.build();
-                });
+    public Mono<DocumentDeleteResult> deleteDocuments(final DocumentDeleteRequest request) {
+        final List<UUID> guids = request.getGuids();
+        final DocumentType type = request.getType();
+        if (guids.isEmpty() && type == null) {
+            return Mono.error(new InvalidRequestException("Either guids or type is required"));
+        }
+        final int chunkSize = bulkDeleteProperties.getChunkSize();
+        final Flux<Document> documents = guids.isEmpty()
+                ? documentRepository.findKeys(null, type)
+                : Flux.fromIterable(guids)
+                        .buffer(chunkSize)
+                        .concatMap(chunk -> documentRepository.findKeys(chunk, type));
+        return documents.buffer(chunkSize)
+                .concatMap(this::deleteDocumentChunk)
+                .reduce(DocumentDeleteResult.empty(), DocumentDeleteResult::plus);
     }
 
     @Override
     @Transactional
+    public Mono<DocumentResource> findDocumentByGuid(final UUID documentGuid, Projection projection) {
+        if (projection == Projection.DEEP) {
+            return documentRepository.findAggregateByGuid(documentGuid)
+                    .map(aggregate -> toResource(
+                            aggregate.getDocument(),
+                            aggregate.getSections(),
+                            aggregate.getLookupValues()
+                    ))
+                    .switchIfEmpty(Mono.defer(() -> findDocumentResource(documentGuid)));
+        } else {
+            return documentGuidCache.get(documentGuid, this::findEntityByGuid)
+                    .map(document -> DocumentResource.fromEntity(document).build());
+        }
+    }
+
+    @Override
+    public Mono<DocumentFacets> findFacets(
+            final FacetField field,
+            final Collection<String> tags,
+            final TagMatch match
+    ) {
+        return Mono.fromSupplier(() -> {
+            final RoaringBitmap scope = (tags == null || tags.isEmpty()) ? null : tagIndex.match(tags, match);
+            final Map<String, Long> counts;
+            if (field == FacetField.TAG) {
+                counts = (scope == null) ? tagIndex.counts() : tagIndex.counts(scope);
+            } else {
+                counts = ((scope == null) ? typeIndex.counts() : typeIndex.counts(scope)).entrySet().stream()
+                        .collect(Collectors.toMap(entry -> entry.getKey().name(), Map.Entry::getValue));
+            }
+            return DocumentFacets.builder()
+                    .field(field.name().toLowerCase(Locale.ROOT))
+                    .counts(counts.entrySet().stream()
+                            .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                                    .thenComparing(Map.Entry.comparingByKey()))
+                            .map(entry -> DocumentFacetCount.builder()
+                                    .value(entry.getKey())
+                                    .documents(entry.getValue())
+                                    .build())
+                            .collect(Collectors.toList()))
+                    .build();
+        });
+    }
+
+    @Override
+    public Mono<Long> findDocumentVersion(final UUID documentGuid) {
+        return documentGuidCache.get(documentGuid, this::findEntityByGuid)
+                .map(this::versionOf);
+    }
+
+    @Override
+    public Flux<DocumentImportResult> importDocuments(final Flux<String> documentLines) {
+        return documentLines
+                .index()
+                .filter(tuple -> StringUtils.hasText(tuple.getT2()))
+                .map(tuple -> parseImportLine(tuple.getT1() + 1, tuple.getT2()))
+                .buffer(bulkImportProperties.getChunkSize())
+                .flatMapSequential(this::importChunk, bulkImportProperties.getConcurrency(), 1);
+    }
+
+    @Override
     public Flux<DocumentResource> listAllDocuments() {
-        return retrieveEntities()
-                .map(entity -> DocumentResource.fromEntity(entity).build());
+        final int fetchSize = listingProperties.getFetchSize();
+        return documentRepository.findPage(0L, fetchSize).collectList()
+                .expand(page -> (page.size() < fetchSize)
+                        ? Mono.<List<Document>>empty()
+                        : documentRepository.findPage(page.get(page.size() - 1).getId(), fetchSize).collectList())
+                .concatMapIterable(page -> page, 1)
+                .map(entity -> DocumentResource.fromEntity(entity).build())
+                .limitRate(fetchSize);
+    }
+
+    @Override
+    public Mono<DocumentPage> listDocuments(final String cursor, final Integer limit, final Projection projection) {
+        return Mono.defer(() -> {
+            final long afterId = (cursor != null) ? DocumentCursor.decode(cursor) : 0L;
+            final int pageSize = pageSize(limit);
+            return documentRepository.findPage(afterId, pageSize + 1).collectList()
+                    .flatMap(documents -> toPage(documents, pageSize, projection));
+        });
+    }
+
+    @Override
+    public Mono<DocumentPage> listDocumentsByTags(
+            final Collection<String> tags,
+            final TagMatch match,
+            final String cursor,
+            final Integer limit,
+            final Projection projection
+    ) {
+        return Mono.defer(() -> {
+            final long afterId = (cursor != null) ? DocumentCursor.decode(cursor) : 0L;
+            if (afterId < 0 || afterId >= Integer.MAX_VALUE) {
+                // the tag index holds 32-bit identifiers, so no document follows such a position
+                throw new InvalidRequestException("Invalid cursor: " + cursor);
+            }
+            final int pageSize = pageSize(limit);
+            final PeekableIntIterator ids = tagIndex.match(tags, match).getIntIterator();
+            ids.advanceIfNeeded((int) afterId + 1);
+            return findMatchedDocuments(ids, pageSize + 1, new ArrayList<>(pageSize + 1))
+                    .flatMap(documents -> toPage(documents, pageSize, projection));
+        });
+    }
+
+    @Override
+    public Mono<DocumentSearchPage> searchDocuments(final String query, final Integer offset, final Integer limit) {
+        return Mono.fromCallable(() -> {
+            if (!StringUtils.hasText(query)) {
+                throw new InvalidRequestException("A search query is required");
+            }
+            final int start = Math.max(0, Optional.ofNullable(offset).orElse(0));
+            final int requested = Optional.ofNullable(limit).orElse(searchProperties.getDefaultPageSize());
+            final int pageSize = Math.max(1, Math.min(requested, searchProperties.getMaxPageSize()));
+            if ((long) start + pageSize > searchProperties.getMaxResultWindow()) {
+                throw new InvalidRequestException("Search results are limited to the first "
+                        + searchProperties.getMaxResultWindow() + " hits");
+            }
+            return searchIndex.search(query, start, pageSize);
+        });
+    }
+
+    @Override
+    public Flux<DocumentChange> streamChanges() {
+        return changeFeed.changes();
+    }
+
+    @Override
+    public Mono<List<DocumentNameSuggestion>> suggestDocumentNames(final String prefix, final Integer limit) {
+        return Mono.fromSupplier(() -> nameSuggester.suggest(
+                Optional.ofNullable(prefix).orElse(""),
+                Math.max(1, Optional.ofNullable(limit).orElse(Integer.MAX_VALUE))
+        ));
     }
 
     @Override
     @Transactional
-    public Mono<DocumentResource> updateDocument(final UUID guid, final JsonPatch patch) {
+    public Mono<DocumentResource> updateDocument(final UUID guid, final JsonPatch patch, final Long expectedVersion) {
+        return TransactionHooks.afterCompletion(() -> documentGuidCache.invalidate(guid))
+                .then(Mono.defer(() -> DocumentPatchPlan.compile(objectMapper.valueToTree(patch), objectMapper)
+                        .map(plan -> applyPatchPlan(guid, plan, expectedVersion))
+                        .orElseGet(() -> applyPatchInMemory(guid, patch, expectedVersion))));
+    }
+
+    /**
+     * Writes the document columns of a patch, conditional on the version of the given document. When the caller did
+     * not ask for a version, a conflict only means the cached document was stale, so it is reloaded and tried once
+     * more. Emits the document as it was before and after the patch.
+     */
+    private Mono<Tuple2<Document, Document>> applyPatchColumns(
+            final Document document,
+            final DocumentPatchPlan plan,
+            final Instant modifiedOn,
+            final boolean reloadOnConflict
+    ) {
+        final long version = versionOf(document);
+        return documentRepository.updateColumns(document.getId(), version, plan.getName(), plan.getType(), modifiedOn)
+                .flatMap(count -> {
+                    if (count > 0) {
+                        return Mono.just(Tuples.of(document, plan.applyTo(document, version + 1, modifiedOn)));
+                    } else if (reloadOnConflict) {
+                        return findEntityByGuid(document.getGuid())
+                                .flatMap(current -> applyPatchColumns(current, plan, modifiedOn, false));
+                    } else {
+                        return Mono.error(new DocumentVersionConflictException(document.getGuid()));
+                    }
+                });
+    }
+
+    private Mono<DocumentResource> applyPatchInMemory(
+            final UUID guid,
+            final JsonPatch patch,
+            final Long expectedVersion
+    ) {
+        final AtomicReference<Document> previous = new AtomicReference<>();
         return updateEntity(guid, entity -> {
+            if (expectedVersion != null && expectedVersion != versionOf(entity)) {
+                throw new DocumentVersionConflictException(guid);
+            }
+            previous.set(entity);
             final DocumentResource resource = DocumentResource.fromEntity(entity).build();
             final DocumentResource updatedResource = applyPatch(guid, patch, resource, DocumentResource.class);
-            return Document.fromResource(updatedResource);
-        }).flatMap(documentEntity -> findDocumentByGuid(guid, Projection.DETAILS));
+            return Document.fromResource(updatedResource)
+                    .modifiedOn(Instant.now())
+                    .version(versionOf(entity));
+        })
+                .onErrorMap(OptimisticLockingFailureException.class, ex -> new DocumentVersionConflictException(guid))
+                .flatMap(documentEntity -> updated(documentEntity, previous.get(), null, false, true)
+                        .flatMap(mutationPublisher::publishAfterCommit)
+                        .thenReturn(DocumentResource.fromEntity(documentEntity).build()));
+    }
+
+    private Mono<DocumentResource> applyPatchPlan(
+            final UUID guid,
+            final DocumentPatchPlan plan,
+            final Long expectedVersion
+    ) {
+        final Instant modifiedOn = Instant.now();
+        return documentGuidCache.get(guid, this::findEntityByGuid)
+                .flatMap(cached -> (expectedVersion == null || expectedVersion == versionOf(cached))
+                        ? Mono.just(cached)
+                        : findEntityByGuid(guid))
+                .flatMap(document -> (expectedVersion == null || expectedVersion == versionOf(document))
+                        ? applyPatchColumns(document, plan, modifiedOn, expectedVersion == null)
+                        : Mono.error(new DocumentVersionConflictException(guid)))
+                .flatMap(documents -> (plan.changesTags()
+                        ? findTags(documents.getT2().getId()).map(Optional::of)
+                        : Mono.just(Optional.<List<String>>empty()))
+                        .flatMap(previousTags -> Flux.fromIterable(plan.getSteps())
+                                .concatMap(step -> applyPatchStep(documents.getT2().getId(), step, modifiedOn))
+                                .then(updated(documents.getT2(), documents.getT1(), previousTags.orElse(null),
+                                        plan.changesTags(),
+                                        plan.changesSections() || plan.getName() != null || plan.getType() != null)))
+                        .flatMap(mutationPublisher::publishAfterCommit)
+                        .then(Mono.fromSupplier(() -> DocumentResource.fromEntity(documents.getT2()).build())));
+    }
+
+    private Mono<Void> applyPatchStep(
+            final long documentId,
+            final DocumentPatchPlan.Step step,
+            final Instant modifiedOn
+    ) {
+        switch (step.getType()) {
+            case ADD_TAGS:
+                return createLookupValues(documentId, LookupValueType.TAG, step.getValues()).then();
+            case REPLACE_TAG:
+                return lookupValueRepository.updateValueAt(EntityType.DOCUMENT, documentId, LookupValueType.TAG,
+                        step.getIndex(), step.getValues().get(0))
+                        .flatMap(count -> requireUpdated(count, "tag at /tags/" + step.getIndex()));
+            case REMOVE_TAG:
+                return lookupValueRepository.deleteValueAt(EntityType.DOCUMENT, documentId, LookupValueType.TAG,
+                        step.getIndex())
+                        .flatMap(count -> requireUpdated(count, "tag at /tags/" + step.getIndex()));
+            case REPLACE_TAGS:
+                return lookupValueRepository
+                        .deleteByEntityTypeAndEntityIdAndValueType(EntityType.DOCUMENT, documentId, LookupValueType.TAG)
+                        .then(createLookupValues(documentId, LookupValueType.TAG, step.getValues()))
+                        .then();
+            case ADD_SECTIONS:
+                return createDocumentSections(documentId, step.getSections()).then();
+            case UPDATE_SECTION:
+                return documentSectionRepository.updateAt(documentId, step.getIndex(), step.getSectionName(),
+                        step.getSectionType(), modifiedOn)
+                        .flatMap(count -> requireUpdated(count, "section at /sections/" + step.getIndex()));
+            case REMOVE_SECTION:
+                return documentSectionRepository.deleteAt(documentId, step.getIndex())
+                        .flatMap(count -> requireUpdated(count, "section at /sections/" + step.getIndex()));
+            case REPLACE_SECTIONS:
+                return documentSectionRepository.deleteByDocumentId(documentId)
+                        .then(createDocumentSections(documentId, step.getSections()))
+                        .then();
+            default:
+                return Mono.error(new IllegalStateException("Unknown patch step " + step.getType()));
+        }
+    }
+
+    private Mono<DocumentResource> createDocumentAggregate(final DocumentResource document) {
+        return createEntity(Document.fromResource(document).modifiedOn(Instant.now()))
+                .zipWhen(documentEntity -> Mono.zip(
+                        createLookupValues(documentEntity.getId(), LookupValueType.TAG, document.getTags()),
+                        createDocumentSections(documentEntity.getId(), document.getSections())
+                ))
+                .flatMap(tuple -> mutationPublisher.publishAfterCommit(DocumentMutation.builder()
+                        .type(DocumentMutation.Type.CREATED)
+                        .documentId(tuple.getT1().getId())
+                        .guid(tuple.getT1().getGuid())
+                        .document(tuple.getT1())
+                        .tags(tuple.getT2().getT1())
+                        .sectionNames(tuple.getT2().getT2().stream()
+                                .map(DocumentSectionResource::getName)
+                                .collect(Collectors.toList()))
+                        .build())
+                        .thenReturn(DocumentResource.fromEntity(tuple.getT1())
+                                .tags(tuple.getT2().getT1())
+                                .sections(tuple.getT2().getT2())
+                                .build()));
     }
 
     private Mono<List<DocumentSectionResource>> createDocumentSections(
@@ -143,12 +470,12 @@ public class DocumentServiceImpl extends CrudServiceSupport<Document, Document.D
             final List<DocumentSectionResource> sections
     ) {
         return Optional.ofNullable(sections)
-                .map(sectionsList -> Flux.fromIterable(sections)
+                .map(sectionsList -> documentSectionRepository.insertAll(sectionsList.stream()
                         .map(section -> DocumentSection.fromResource(section)
                                 .guid(UUID.randomUUID())
                                 .documentId(documentId)
                                 .build())
-                        .flatMap(documentSectionRepository::save)
+                        .collect(Collectors.toList()))
                         .map(ds -> DocumentSectionResource.fromEntity(ds).build())
                         .collectList())
                 .orElse(Mono.just(Collections.emptyList()));
@@ -159,34 +486,224 @@ public class DocumentServiceImpl extends CrudServiceSupport<Document, Document.D
             final LookupValueType type,
             final List<String> values
     ) {
-        return Flux.fromIterable(values)
+        return lookupValueRepository.insertAll(values.stream()
                 .map(value -> LookupValue.builder()
                         .entityType(EntityType.DOCUMENT)
                         .entityId(documentId)
                         .valueType(type)
                         .value(value)
                         .build())
-                .flatMap(lookupValueRepository::save)
+                .collect(Collectors.toList()))
                 .map(LookupValue::getValue)
                 .collectList();
     }
 
-    private Mono<List<DocumentSection>> findDocumentSectionList(final long entityId, final Projection projection) {
-        if (projection == Projection.DEEP) {
-            return documentSectionRepository.findAllByDocumentId(entityId)
-                    .collectList();
-        } else {
-            return Mono.just(Collections.emptyList());
+    /**
+     * Deletes a chunk of documents with their sections and tags, reading the tags first so that the deletion
+     * mutations carry them. The sections are deleted explicitly rather than by the foreign key cascade, so that
+     * they are counted. The cached guids of the chunk are invalidated, and its mutations published, once the
+     * transaction completes.
+     */
+    private Mono<DocumentDeleteResult> deleteDocumentChunk(final List<Document> documents) {
+        final List<Long> documentIds = documents.stream().map(Document::getId).collect(Collectors.toList());
+        return TransactionHooks.afterCompletion(() -> documents
+                        .forEach(document -> documentGuidCache.invalidate(document.getGuid())))
+                .then(lookupValueRepository.findByEntityTypeAndEntityIdIn(EntityType.DOCUMENT, documentIds)
+                        .filter(lookupValue -> lookupValue.getValueType() == LookupValueType.TAG)
+                        .collectMultimap(LookupValue::getEntityId, LookupValue::getValue))
+                .flatMap(tagsById -> lookupValueRepository
+                        .deleteByEntityTypeAndEntityIdIn(EntityType.DOCUMENT, documentIds)
+                        .flatMap(tags -> documentSectionRepository.deleteByDocumentIdIn(documentIds)
+                                .flatMap(sections -> documentRepository.deleteByIdIn(documentIds)
+                                        .map(deleted -> DocumentDeleteResult.builder()
+                                                .documents(deleted)
+                                                .sections(sections)
+                                                .tags(tags)
+                                                .build())))
+                        .flatMap(result -> mutationPublisher.publishAfterCommit(documents.stream()
+                                        .map(document -> DocumentMutation.deleted(document, new ArrayList<>(
+                                                tagsById.getOrDefault(document.getId(), Collections.emptyList()))))
+                                        .collect(Collectors.toList()))
+                                .thenReturn(result)));
+    }
+
+    private Mono<DocumentResource> findDocumentResource(final UUID documentGuid) {
+        return findEntityByGuid(documentGuid)
+                .map(document -> DocumentResource.fromEntity(document).build());
+    }
+
+    /**
+     * Reads the documents of the next matched identifiers until the wanted number is found or the matches run out, as
+     * the index may still hold identifiers of documents deleted by a transaction whose mutation is not applied yet.
+     */
+    private Mono<List<Document>> findMatchedDocuments(
+            final PeekableIntIterator ids,
+            final int wanted,
+            final List<Document> found
+    ) {
+        final List<Long> documentIds = new ArrayList<>(wanted - found.size());
+        while (ids.hasNext() && found.size() + documentIds.size() < wanted) {
+            documentIds.add((long) ids.next());
+        }
+        if (documentIds.isEmpty()) {
+            return Mono.just(found);
         }
+        return documentRepository.findAllById(documentIds)
+                .sort(Comparator.comparing(Document::getId))
+                .collectList()
+                .flatMap(documents -> {
+                    found.addAll(documents);
+                    return findMatchedDocuments(ids, wanted, found);
+                });
     }
 
-    private Mono<List<LookupValue>> findValueList(final long entityId, final Projection projection) {
-        if (projection == Projection.DEEP) {
-            return lookupValueRepository.findByEntityTypeAndEntityId(EntityType.DOCUMENT, entityId)
-                    .collectList();
-        } else {
-            return Mono.just(Collections.emptyList());
+    private Mono<List<String>> findSectionNames(final long documentId) {
+        return documentSectionRepository.findAllByDocumentIdOrderByIdAsc(documentId)
+                .map(DocumentSection::getName)
+                .collectList();
+    }
+
+    private Mono<List<String>> findTags(final long documentId) {
+        return lookupValueRepository.findByEntityTypeAndEntityId(EntityType.DOCUMENT, documentId)
+                .filter(lookupValue -> lookupValue.getValueType() == LookupValueType.TAG)
+                .map(LookupValue::getValue)
+                .collectList();
+    }
+
+    private Flux<DocumentImportResult> importChunk(final List<ImportItem> chunk) {
+        return transactionalOperator.transactional(Flux.fromIterable(chunk)
+                .concatMap(this::importItem)
+                .collectList())
+                .onErrorResume(ex -> {
+                    log.warn("Bulk import chunk failed, retrying {} documents individually - {}",
+                            chunk.size(), ex.getMessage());
+                    return Flux.fromIterable(chunk)
+                            .concatMap(item -> transactionalOperator.transactional(importItem(item))
+                                    .onErrorResume(itemEx -> Mono.just(
+                                            DocumentImportResult.failure(item.getLine(), itemEx.getMessage()))))
+                            .collectList();
+                })
+                .flatMapIterable(results -> results);
+    }
+
+    private Mono<DocumentImportResult> importItem(final ImportItem item) {
+        if (item.getError() != null) {
+            return Mono.just(DocumentImportResult.failure(item.getLine(), item.getError()));
+        }
+        return createDocumentAggregate(item.getDocument())
+                .map(resource -> DocumentImportResult.success(item.getLine(), resource.getGuid()));
+    }
+
+    private int pageSize(final Integer limit) {
+        final int requested = Optional.ofNullable(limit).orElse(listingProperties.getDefaultPageSize());
+        return Math.max(1, Math.min(requested, listingProperties.getMaxPageSize()));
+    }
+
+    private ImportItem parseImportLine(final long line, final String json) {
+        try {
+            final DocumentResource document = objectMapper.readValue(json, DocumentResource.class);
+            if (!StringUtils.hasText(document.getName())) {
+                return new ImportItem(line, null, "name is required");
+            } else if (document.getType() == null) {
+                return new ImportItem(line, null, "type is required");
+            } else {
+                return new ImportItem(line, document, null);
+            }
+        } catch (final JsonProcessingException ex) {
+            return new ImportItem(line, null, ex.getOriginalMessage());
         }
     }
 
+    private Mono<Void> requireUpdated(final int count, final String target) {
+        return (count > 0) ? Mono.empty() : Mono.error(new InvalidRequestException("There is no " + target));
+    }
+
+    /**
+     * Builds the mutation for an updated document, reading its tags and section names back inside the transaction
+     * when they are asked for.
+     */
+    private Mono<DocumentMutation> updated(
+            final Document document,
+            final Document previous,
+            final List<String> previousTags,
+            final boolean withTags,
+            final boolean withSectionNames
+    ) {
+        final DocumentMutation.DocumentMutationBuilder builder = DocumentMutation.builder()
+                .type(DocumentMutation.Type.UPDATED)
+                .documentId(document.getId())
+                .guid(document.getGuid())
+                .document(document)
+                .previous(previous)
+                .previousTags(previousTags);
+        return (withTags ? findTags(document.getId()).doOnNext(builder::tags).then() : Mono.<Void>empty())
+                .then(withSectionNames
+                        ? findSectionNames(document.getId()).doOnNext(builder::sectionNames).then()
+                        : Mono.<Void>empty())
+                .then(Mono.fromSupplier(builder::build));
+    }
+
+    private long versionOf(final Document document) {
+        return Optional.ofNullable(document.getVersion()).orElse(0L);
+    }
+
+    private Mono<DocumentPage> toPage(final List<Document> documents, final int pageSize, final Projection projection) {
+        final List<Document> page = documents.subList(0, Math.min(pageSize, documents.size()));
+        final DocumentPage.DocumentPageBuilder builder = DocumentPage.builder();
+        if (documents.size() > pageSize) {
+            builder.next(DocumentCursor.encode(page.get(pageSize - 1).getId()));
+        }
+        return toResources(page, projection)
+                .map(resources -> builder.documents(resources).build());
+    }
+
+    private DocumentResource toResource(
+            final Document document,
+            final Collection<DocumentSection> documentSections,
+            final Collection<LookupValue> lookupValues
+    ) {
+        final DocumentResource.DocumentResourceBuilder builder = DocumentResource.fromEntity(document);
+        documentSections.forEach(documentSection -> {
+            final DocumentSectionResource section = DocumentSectionResource.fromEntity(documentSection).build();
+            builder.section(section);
+        });
+        lookupValues.forEach(lookupValue -> {
+            final String value = lookupValue.getValue();
+            switch (lookupValue.getValueType()) {
+                case TAG:
+                    builder.tag(value);
+                    break;
+            }
+        });
+        return builder.build();
+    }
+
+    private Mono<List<DocumentResource>> toResources(final List<Document> documents, final Projection projection) {
+        if (projection != Projection.DEEP || documents.isEmpty()) {
+            return Mono.just(documents.stream()
+                    .map(document -> DocumentResource.fromEntity(document).build())
+                    .collect(Collectors.toList()));
+        }
+        final List<Long> documentIds = documents.stream().map(Document::getId).collect(Collectors.toList());
+        return Mono.zip(
+                documentSectionRepository.findAllByDocumentIdInOrderByIdAsc(documentIds)
+                        .collectMultimap(DocumentSection::getDocumentId),
+                lookupValueRepository.findByEntityTypeAndEntityIdIn(EntityType.DOCUMENT, documentIds)
+                        .collectMultimap(LookupValue::getEntityId)
+        ).map(tuple -> documents.stream()
+                .map(document -> toResource(
+                        document,
+                        tuple.getT1().getOrDefault(document.getId(), Collections.emptyList()),
+                        tuple.getT2().getOrDefault(document.getId(), Collections.emptyList())
+                ))
+                .collect(Collectors.toList()));
+    }
+
+    @Value
+    private static class ImportItem {
+        long line;
+        DocumentResource document;
+        String error;
+    }
+
 }
@@ -1,4 +1,4 @@
-CREATE TABLE IF NOT EXISTS t_lookup_value (
+CREATE TABLE t_lookup_value (
     lv_id SERIAL PRIMARY KEY,
     lv_entity_type VARCHAR(64) NOT NULL,
     lv_entity_id NUMBER,
@@ -6,7 +6,7 @@ CREATE TABLE IF NOT EXISTS t_lookup_value (
     lv_value VARCHAR(64) NOT NULL
 );
 
-CREATE TABLE IF NOT EXISTS t_document (
+CREATE TABLE t_document (
     do_id SERIAL PRIMARY KEY,
     do_guid UUID NOT NULL,
     do_name VARCHAR(64) NOT NULL,
@@ -17,7 +17,7 @@ CREATE TABLE IF NOT EXISTS t_document (
     do_modified_on TIMESTAMP
 );
 
-CREATE TABLE IF NOT EXISTS t_document_section (
+CREATE TABLE t_document_section (
     ds_id SERIAL PRIMARY KEY,
     ds_guid UUID NOT NULL,
     ds_do_id NUMBER NOT NULL,
@@ -27,6 +27,5 @@ CREATE TABLE IF NOT EXISTS t_document_section (
     ds_created_on TIMESTAMP,
     ds_modified_by VARCHAR(64),
     ds_modified_on TIMESTAMP,
-    FOREIGN KEY (ds_do_id) REFERENCES t_document(do_id)
+    CONSTRAINT fk_document_section_document FOREIGN KEY (ds_do_id) REFERENCES t_document(do_id)
 );
-
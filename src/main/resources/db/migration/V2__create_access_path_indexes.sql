@@ -0,0 +1,10 @@
+-- every GET, PATCH and DELETE on /api/documents/{guid} resolves the document by guid
+CREATE UNIQUE INDEX ux_document_guid ON t_document (do_guid);
+
+CREATE UNIQUE INDEX ux_document_section_guid ON t_document_section (ds_guid);
+
+-- sections are always read and deleted by owning document, in id order
+CREATE INDEX ix_document_section_document ON t_document_section (ds_do_id, ds_id);
+
+-- covers lookup value reads by owning entity without touching the table rows
+CREATE INDEX ix_lookup_value_entity ON t_lookup_value (lv_entity_type, lv_entity_id, lv_value_type, lv_value);
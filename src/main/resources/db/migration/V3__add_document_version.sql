@@ -0,0 +1,2 @@
+-- optimistic concurrency: bumped by every change to a document, its sections or its tags
+ALTER TABLE t_document ADD COLUMN do_version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+-- sections never outlive their document; lets single and bulk deletes skip a statement per document
+ALTER TABLE t_document_section DROP CONSTRAINT fk_document_section_document;
+
+ALTER TABLE t_document_section ADD CONSTRAINT fk_document_section_document
+    FOREIGN KEY (ds_do_id) REFERENCES t_document(do_id) ON DELETE CASCADE;
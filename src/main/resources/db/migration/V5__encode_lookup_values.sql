@@ -0,0 +1,36 @@
+-- lookup values repeat a handful of enum names and tag strings on every row; store them as integer codes and
+-- dictionary ids instead. Enum codes are fixed by EntityType and LookupValueType.
+CREATE TABLE t_lookup_dictionary (
+    ld_id SERIAL PRIMARY KEY,
+    ld_value VARCHAR(64) NOT NULL
+);
+
+CREATE UNIQUE INDEX ux_lookup_dictionary_value ON t_lookup_dictionary (ld_value);
+
+INSERT INTO t_lookup_dictionary (ld_value) SELECT DISTINCT lv_value FROM t_lookup_value ORDER BY lv_value;
+
+ALTER TABLE t_lookup_value ADD COLUMN lv_entity_code TINYINT;
+ALTER TABLE t_lookup_value ADD COLUMN lv_value_code TINYINT;
+ALTER TABLE t_lookup_value ADD COLUMN lv_value_id INT;
+
+UPDATE t_lookup_value SET
+    lv_entity_code = CASE lv_entity_type WHEN 'DOCUMENT' THEN 1 END,
+    lv_value_code = CASE lv_value_type WHEN 'TAG' THEN 1 END,
+    lv_value_id = (SELECT ld_id FROM t_lookup_dictionary WHERE ld_value = lv_value);
+
+DROP INDEX ix_lookup_value_entity;
+
+ALTER TABLE t_lookup_value DROP COLUMN lv_entity_type;
+ALTER TABLE t_lookup_value DROP COLUMN lv_value_type;
+ALTER TABLE t_lookup_value DROP COLUMN lv_value;
+
+ALTER TABLE t_lookup_value ALTER COLUMN lv_entity_code RENAME TO lv_entity_type;
+ALTER TABLE t_lookup_value ALTER COLUMN lv_value_code RENAME TO lv_value_type;
+ALTER TABLE t_lookup_value ALTER COLUMN lv_entity_type SET NOT NULL;
+ALTER TABLE t_lookup_value ALTER COLUMN lv_value_type SET NOT NULL;
+ALTER TABLE t_lookup_value ALTER COLUMN lv_value_id SET NOT NULL;
+
+-- NUMBER is a DECIMAL in H2, which costs a BigDecimal per row; document ids are SERIAL
+ALTER TABLE t_lookup_value ALTER COLUMN lv_entity_id SET DATA TYPE INT;
+
+CREATE INDEX ix_lookup_value_entity ON t_lookup_value (lv_entity_type, lv_entity_id, lv_value_type, lv_value_id);
@@ -0,0 +1,52 @@
+package io.jrb.labs.common.module.command;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class CommandModulePropertiesTest {
+
+    @Test
+    void testPartialOverrideInheritsTheOtherDefaults() {
+        final CommandModuleProperties properties = bind(Map.of(
+                "command.defaults.max-concurrent", "8",
+                "command.defaults.max-queued", "32",
+                "command.defaults.timeout", "5s",
+                "command.commands.PingCommand.timeout", "1s"
+        ));
+
+        final CommandModuleProperties.Limits limits = properties.limitsFor("PingCommand");
+
+        assertThat(limits.getMaxConcurrent(), is(8));
+        assertThat(limits.getMaxQueued(), is(32));
+        assertThat(limits.getTimeout(), is(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void testCommandWithoutOverrideUsesTheDefaults() {
+        final CommandModuleProperties properties = bind(Map.of(
+                "command.defaults.max-queued", "32",
+                "command.commands.PingCommand.max-concurrent", "2"
+        ));
+
+        final CommandModuleProperties.Limits limits = properties.limitsFor("OtherCommand");
+
+        assertThat(limits.getMaxConcurrent(), is(64));
+        assertThat(limits.getMaxQueued(), is(32));
+        assertThat(limits.getTimeout(), is(Duration.ofSeconds(10)));
+        assertThat(properties.limitsFor("pingcommand").getMaxConcurrent(), is(2));
+    }
+
+    private static CommandModuleProperties bind(final Map<String, String> source) {
+        return new Binder(new MapConfigurationPropertySource(source))
+                .bind("command", CommandModuleProperties.class)
+                .get();
+    }
+
+}
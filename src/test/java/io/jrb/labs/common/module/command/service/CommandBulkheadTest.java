@@ -0,0 +1,57 @@
+package io.jrb.labs.common.module.command.service;
+
+import io.jrb.labs.common.module.command.service.exception.CommandRejectedException;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class CommandBulkheadTest {
+
+    @Test
+    void testQueuesThenRejectsBeyondLimits() {
+        final CommandBulkhead bulkhead = new CommandBulkhead("TestCommand", 1, 1);
+        final Sinks.One<String> first = Sinks.one();
+        final Sinks.One<String> second = Sinks.one();
+
+        final StepVerifier running = StepVerifier.create(bulkhead.execute(first::asMono))
+                .expectNext("first")
+                .expectComplete()
+                .verifyLater();
+        final StepVerifier queued = StepVerifier.create(bulkhead.execute(second::asMono))
+                .expectNext("second")
+                .expectComplete()
+                .verifyLater();
+        assertThat(bulkhead.getActive(), is(1));
+        assertThat(bulkhead.getQueued(), is(1));
+
+        StepVerifier.create(bulkhead.execute(() -> Mono.just("third")))
+                .expectError(CommandRejectedException.class)
+                .verify();
+
+        first.tryEmitValue("first");
+        running.verify();
+        assertThat(bulkhead.getQueued(), is(0));
+
+        second.tryEmitValue("second");
+        queued.verify();
+        assertThat(bulkhead.getActive(), is(0));
+    }
+
+    @Test
+    void testCancelledExecutionLeavesQueue() {
+        final CommandBulkhead bulkhead = new CommandBulkhead("TestCommand", 1, 1);
+        final Sinks.One<String> first = Sinks.one();
+
+        bulkhead.execute(first::asMono).subscribe();
+        bulkhead.execute(() -> Mono.just("second")).subscribe().dispose();
+        assertThat(bulkhead.getQueued(), is(0));
+
+        first.tryEmitValue("first");
+        assertThat(bulkhead.getActive(), is(0));
+    }
+
+}
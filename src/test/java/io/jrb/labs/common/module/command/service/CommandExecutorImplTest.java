@@ -1,28 +1,46 @@
 package io.jrb.labs.common.module.command.service;
 
+import io.jrb.labs.common.module.command.CommandModuleProperties;
 import io.jrb.labs.common.module.command.service.command.PingCommand;
 import io.jrb.labs.common.module.command.service.command.PingCommandImpl;
 import io.jrb.labs.common.module.command.service.command.PingRequest;
+import io.jrb.labs.common.module.command.service.command.PingResponse;
+import io.jrb.labs.common.module.command.service.exception.CommandEmptyResponseException;
+import io.jrb.labs.common.module.command.service.exception.CommandTimeoutException;
+import io.jrb.labs.common.module.command.service.exception.CommandValidationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
 import javax.validation.Validation;
 import javax.validation.Validator;
 import javax.validation.ValidatorFactory;
+import javax.validation.constraints.NotNull;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
 
 @SpringJUnitConfig(CommandExecutorImplTest.Config.class)
 class CommandExecutorImplTest {
 
+    private static final Duration ECHO_TIMEOUT = Duration.ofMillis(200);
+
     @Configuration
     static class Config {
 
@@ -33,11 +51,28 @@ class CommandExecutorImplTest {
         }
 
         @Bean
-        CommandExecutor commandExecutor(
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        CommandRegistry commandRegistry(
                 final ApplicationContext applicationContext,
+                final Validator validator,
+                final MeterRegistry meterRegistry
+        ) {
+            final CommandModuleProperties properties = new CommandModuleProperties();
+            properties.getCommands().put(EchoCommand.class.getSimpleName(),
+                    new CommandModuleProperties.Limits(null, null, ECHO_TIMEOUT));
+            return new CommandRegistry(applicationContext, validator, properties, meterRegistry);
+        }
+
+        @Bean
+        CommandExecutor commandExecutor(
+                final CommandRegistry commandRegistry,
                 final Validator validator
         ) {
-            return new CommandExecutorImpl(applicationContext, validator);
+            return new CommandExecutorImpl(commandRegistry, validator);
         }
 
         @Bean
@@ -45,13 +80,60 @@ class CommandExecutorImplTest {
             return new PingCommandImpl();
         }
 
+        @Bean
+        EchoCommandImpl echoCommand() {
+            return new EchoCommandImpl();
+        }
+
+    }
+
+    interface EchoCommand extends Command<EchoRequest, PingResponse> {
+    }
+
+    static final class EchoRequest implements CommandRequest {
+
+        @NotNull
+        private final String mode;
+
+        EchoRequest(final String mode) {
+            this.mode = mode;
+        }
+
+    }
+
+    static final class EchoCommandImpl implements EchoCommand {
+
+        private final AtomicInteger executions = new AtomicInteger();
+
+        @Override
+        public Mono<PingResponse> execute(final EchoRequest request) {
+            executions.incrementAndGet();
+            switch (request.mode) {
+                case "fail":
+                    return Mono.error(new IllegalStateException("failed"));
+                case "hang":
+                    return Mono.never();
+                case "empty":
+                    return Mono.empty();
+                default:
+                    return Mono.just(PingResponse.builder().data(Instant.now()).build());
+            }
+        }
+
     }
 
     @Autowired
     private CommandExecutor commandExecutor;
 
+    @Autowired
+    private EchoCommandImpl echoCommand;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     void testCommandExecutor() {
+        final long successesBefore = successCount();
         final PingRequest request = PingRequest.builder().build();
         StepVerifier.create(commandExecutor.execute(PingCommand.class, request))
                 .expectNextMatches(result -> {
@@ -64,6 +146,77 @@ class CommandExecutorImplTest {
                 })
                 .expectComplete()
                 .verify();
+
+        assertThat(successCount(), is(successesBefore + 1));
+    }
+
+    @Test
+    void testCommandExecutorBatch() {
+        final Flux<PingRequest> requests = Flux.range(0, 3).map(i -> PingRequest.builder().build());
+        StepVerifier.create(commandExecutor.executeAll(PingCommand.class, requests))
+                .expectNextMatches(result -> result.isSuccess() && result.getIndex() == 0L)
+                .expectNextMatches(result -> result.isSuccess() && result.getIndex() == 1L)
+                .expectNextMatches(result -> result.isSuccess() && result.getIndex() == 2L)
+                .expectComplete()
+                .verify();
+    }
+
+    @Test
+    void testCommandExecutorBatchReportsFailuresInPlace() {
+        final Flux<EchoRequest> requests = Flux.just("ok", "fail", "hang", "empty", "ok").map(EchoRequest::new);
+        StepVerifier.create(commandExecutor.executeAll(EchoCommand.class, requests))
+                .assertNext(result -> assertSuccess(result, 0L))
+                .assertNext(result -> assertError(result, 1L, IllegalStateException.class))
+                .assertNext(result -> assertError(result, 2L, CommandTimeoutException.class))
+                .assertNext(result -> assertError(result, 3L, CommandEmptyResponseException.class))
+                .assertNext(result -> assertSuccess(result, 4L))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testCommandExecutorBatchValidatesBeforeExecuting() {
+        final int executionsBefore = echoCommand.executions.get();
+        final AtomicInteger executionsWhenLastPulled = new AtomicInteger(-1);
+        final Flux<EchoRequest> requests = Flux.just(new EchoRequest("ok"), new EchoRequest(null))
+                .concatWith(Mono.fromCallable(() -> {
+                    executionsWhenLastPulled.set(echoCommand.executions.get() - executionsBefore);
+                    return new EchoRequest("ok");
+                }));
+        StepVerifier.create(commandExecutor.executeAll(EchoCommand.class, requests))
+                .assertNext(result -> assertSuccess(result, 0L))
+                .assertNext(result -> assertError(result, 1L, CommandValidationException.class))
+                .assertNext(result -> assertSuccess(result, 2L))
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+
+        assertThat(executionsWhenLastPulled.get(), is(0));
+        assertThat(echoCommand.executions.get() - executionsBefore, is(2));
+    }
+
+    private static void assertSuccess(final CommandResponseWrapper<PingResponse> result, final long index) {
+        assertThat(result.getIndex(), is(index));
+        assertThat(result.isSuccess(), is(true));
+        assertThat(result.getContent(), is(notNullValue()));
+    }
+
+    private static void assertError(
+            final CommandResponseWrapper<PingResponse> result,
+            final long index,
+            final Class<? extends Throwable> errorType
+    ) {
+        assertThat(result.getIndex(), is(index));
+        assertThat(result.isSuccess(), is(false));
+        assertThat(result.getContent(), is(nullValue()));
+        assertThat(result.getError(), is(instanceOf(errorType)));
+    }
+
+    private long successCount() {
+        final Timer timer = meterRegistry.find(CommandExecutorImpl.TIMER_NAME)
+                .tag("command", PingCommand.class.getSimpleName())
+                .tag("outcome", CommandExecutorImpl.OUTCOME_SUCCESS)
+                .timer();
+        return timer != null ? timer.count() : 0L;
     }
 
 }
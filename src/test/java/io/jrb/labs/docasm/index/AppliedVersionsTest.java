@@ -0,0 +1,82 @@
+package io.jrb.labs.docasm.index;
+
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.service.DocumentMutation;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+class AppliedVersionsTest {
+
+    private final AppliedVersions appliedVersions = new AppliedVersions();
+    private final List<String> applied = new ArrayList<>();
+
+    @Test
+    void testDeletionForgetsTheVersion() {
+        apply(updated(1, 1), "update");
+        apply(updated(2, 1), "update");
+        assertThat(appliedVersions.size(), is(2));
+
+        apply(DocumentMutation.deleted(document(1, 1), List.of()), "delete");
+
+        assertThat(appliedVersions.size(), is(1));
+        assertThat(applied, contains("update 1 follows=false", "update 2 follows=false", "delete 1 follows=true"));
+    }
+
+    @Test
+    void testMutationsOfADeletedDocumentAreIgnored() {
+        apply(DocumentMutation.deleted(document(1, 3), List.of()), "delete");
+        apply(updated(1, 3), "update");
+        apply(DocumentMutation.deleted(document(1, 3), List.of()), "delete");
+
+        assertThat(appliedVersions.size(), is(0));
+        assertThat(applied, contains("delete 1 follows=false"));
+    }
+
+    @Test
+    void testOlderMutationsAreIgnored() {
+        apply(updated(1, 2), "update");
+        apply(updated(1, 1), "update");
+        apply(updated(1, 2), "update");
+        apply(updated(1, 3), "update");
+
+        assertThat(applied, contains("update 1 follows=false", "update 1 follows=true"));
+    }
+
+    @Test
+    void testUnreflectedChangeKeepsThePreviousVersion() {
+        apply(updated(1, 1), "update");
+        appliedVersions.apply(updated(1, 3), follows -> false);
+        apply(updated(1, 2), "update");
+
+        assertThat(applied, contains("update 1 follows=false", "update 1 follows=true"));
+    }
+
+    private void apply(final DocumentMutation mutation, final String label) {
+        appliedVersions.apply(mutation, follows -> {
+            applied.add(label + " " + mutation.getDocumentId() + " follows=" + follows);
+            return true;
+        });
+    }
+
+    private static Document document(final long documentId, final long version) {
+        return Document.builder().id(documentId).version(version).build();
+    }
+
+    private static DocumentMutation updated(final long documentId, final long version) {
+        return DocumentMutation.builder()
+                .type(DocumentMutation.Type.UPDATED)
+                .documentId(documentId)
+                .guid(UUID.randomUUID())
+                .document(document(documentId, version))
+                .previous(document(documentId, version - 1))
+                .build();
+    }
+
+}
@@ -0,0 +1,101 @@
+package io.jrb.labs.docasm.index;
+
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.service.DocumentMutation;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest
+class DocumentSearchIndexTest {
+
+    @Autowired
+    private DocumentSearchIndex searchIndex;
+
+    @Test
+    void testUpdateArrivingAfterDeletionIsIgnored() throws Exception {
+        final long deletedId = 900_001L;
+        final long witnessId = 900_002L;
+        searchIndex.onMutation(updated(deletedId, 1, "Quokka Medley"));
+        searchIndex.onMutation(DocumentMutation.deleted(document(deletedId, 1, "Quokka Medley"), List.of()));
+        searchIndex.onMutation(updated(deletedId, 1, "Quokka Medley"));
+        // a later write to another document becoming searchable proves the reader has caught up with the others
+        searchIndex.onMutation(updated(witnessId, 1, "Wombat Medley"));
+        try {
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (searchIndex.search("wombat", 0, 10).getTotal() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+
+            assertThat(searchIndex.search("wombat", 0, 10).getTotal(), is(1L));
+            assertThat(searchIndex.search("quokka", 0, 10).getTotal(), is(0L));
+        } finally {
+            searchIndex.onMutation(DocumentMutation.deleted(document(witnessId, 1, "Wombat Medley"), List.of()));
+        }
+    }
+
+    @Test
+    void testQueriesSucceedWhileIndexIsRebuilt() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final CompletableFuture<Void> rebuilds = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < 20; i++) {
+                    searchIndex.rebuild();
+                }
+            }, executor);
+            final AtomicInteger queries = new AtomicInteger();
+            final CompletableFuture<?>[] searchers = new CompletableFuture<?>[3];
+            for (int i = 0; i < searchers.length; i++) {
+                searchers[i] = CompletableFuture.runAsync(() -> {
+                    while (!rebuilds.isDone()) {
+                        searchIndex.search("song*", 0, 10);
+                        searchIndex.statistics();
+                        queries.incrementAndGet();
+                    }
+                }, executor);
+            }
+
+            // any query failing on a closed index fails its future, and so this join
+            CompletableFuture.allOf(searchers).get(2, TimeUnit.MINUTES);
+            rebuilds.get(2, TimeUnit.MINUTES);
+            assertThat(queries.get(), greaterThan(0));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Document document(final long documentId, final long version, final String name) {
+        return Document.builder()
+                .id(documentId)
+                .guid(UUID.randomUUID())
+                .name(name)
+                .type(DocumentType.SONG_SET_LIST)
+                .version(version)
+                .build();
+    }
+
+    private static DocumentMutation updated(final long documentId, final long version, final String name) {
+        return DocumentMutation.builder()
+                .type(DocumentMutation.Type.UPDATED)
+                .documentId(documentId)
+                .guid(UUID.randomUUID())
+                .document(document(documentId, version, name))
+                .previous(document(documentId, version - 1, name))
+                .sectionNames(List.of())
+                .build();
+    }
+
+}
@@ -0,0 +1,106 @@
+package io.jrb.labs.docasm.index;
+
+import io.jrb.labs.docasm.config.DocasmProperties;
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.resource.DocumentNameSuggestion;
+import io.jrb.labs.docasm.service.DocumentMutation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+class NameSuggesterTest {
+
+    private final NameSuggester suggester =
+            new NameSuggester(mock(DatabaseClient.class), new DocasmProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void testRenamesArrivingOutOfOrderCountTheLatestName() {
+        suggester.onMutation(created(1, "Alpha"));
+        suggester.onMutation(created(2, "Beta"));
+        suggester.onMutation(renamed(1, 2, "Beta", "Gamma"));
+        suggester.onMutation(renamed(1, 1, "Alpha", "Beta"));
+
+        assertThat(counts(), is(Map.of("Beta", 1, "Gamma", 1)));
+    }
+
+    @Test
+    void testRenameSkippingAVersionReplacesTheCountedName() {
+        suggester.onMutation(created(1, "Alpha"));
+        suggester.onMutation(renamed(1, 1, "Alpha", "Beta"));
+        // version 2 (Beta -> Gamma) is still on its way, so version 3 replaces Beta, not Gamma
+        suggester.onMutation(renamed(1, 3, "Gamma", "Delta"));
+        suggester.onMutation(renamed(1, 2, "Beta", "Gamma"));
+
+        assertThat(counts(), is(Map.of("Delta", 1)));
+    }
+
+    @Test
+    void testRenameArrivingAfterDeletionIsIgnored() {
+        suggester.onMutation(created(1, "Alpha"));
+        suggester.onMutation(created(2, "Alpha"));
+        suggester.onMutation(DocumentMutation.deleted(document(1, 1, "Beta"), List.of()));
+        suggester.onMutation(renamed(1, 1, "Alpha", "Beta"));
+
+        assertThat(counts(), is(Map.of("Alpha", 1)));
+    }
+
+    @Test
+    void testRepeatedDeletionDoesNotUncountASharedName() {
+        suggester.onMutation(created(1, "Alpha"));
+        suggester.onMutation(created(2, "Alpha"));
+        suggester.onMutation(DocumentMutation.deleted(document(1, 0, "Alpha"), List.of()));
+        suggester.onMutation(DocumentMutation.deleted(document(1, 0, "Alpha"), List.of()));
+
+        assertThat(counts(), is(Map.of("Alpha", 1)));
+    }
+
+    private Map<String, Integer> counts() {
+        return suggester.suggest("", 10).stream()
+                .collect(Collectors.toMap(DocumentNameSuggestion::getName, DocumentNameSuggestion::getDocuments));
+    }
+
+    private static DocumentMutation created(final long documentId, final String name) {
+        return DocumentMutation.builder()
+                .type(DocumentMutation.Type.CREATED)
+                .documentId(documentId)
+                .guid(UUID.randomUUID())
+                .document(document(documentId, 0, name))
+                .build();
+    }
+
+    private static Document document(final long documentId, final long version, final String name) {
+        return Document.builder()
+                .id(documentId)
+                .name(name)
+                .version(version)
+                .modifiedOn(Instant.ofEpochMilli(1000L + version))
+                .build();
+    }
+
+    private static DocumentMutation renamed(
+            final long documentId,
+            final long version,
+            final String previousName,
+            final String name
+    ) {
+        return DocumentMutation.builder()
+                .type(DocumentMutation.Type.UPDATED)
+                .documentId(documentId)
+                .guid(UUID.randomUUID())
+                .document(document(documentId, version, name))
+                .previous(document(documentId, version - 1, previousName))
+                .sectionNames(List.of())
+                .build();
+    }
+
+}
@@ -0,0 +1,85 @@
+package io.jrb.labs.docasm.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+
+class NameTrieTest {
+
+    @Test
+    void testSuggestsMostRecentNamesForPrefixIgnoringCase() {
+        final NameTrie trie = new NameTrie(2);
+        trie.add("Song1", 100L);
+        trie.add("Song2", 300L);
+        trie.add("Sonata", 200L);
+        trie.add("Setlist", 400L);
+
+        assertThat(names(trie.suggest("so", 10)), contains("Song2", "Sonata"));
+        assertThat(names(trie.suggest("SONG", 10)), contains("Song2", "Song1"));
+        assertThat(names(trie.suggest("", 1)), contains("Setlist"));
+        assertThat(trie.suggest("x", 10), is(empty()));
+        assertThat(trie.suggest("songs", 10), is(empty()));
+    }
+
+    @Test
+    void testRemovesNameWithItsLastDocument() {
+        final NameTrie trie = new NameTrie(10);
+        trie.add("Song", 100L);
+        trie.add("Song", 200L);
+        trie.add("Songbook", 150L);
+
+        trie.remove("Song");
+        assertThat(names(trie.suggest("song", 10)), contains("Song", "Songbook"));
+
+        trie.remove("Song");
+        assertThat(names(trie.suggest("song", 10)), contains("Songbook"));
+        assertThat(trie.size(), is(1));
+
+        trie.touch("Songbook", 500L);
+        trie.add("Sonnet", 300L);
+        assertThat(names(trie.suggest("son", 10)), contains("Songbook", "Sonnet"));
+    }
+
+    @Test
+    void testKeepsSpellingsThatDifferOnlyByCaseApart() {
+        final NameTrie trie = new NameTrie(10);
+        trie.add("Foo", 100L);
+        trie.add("foo", 200L);
+        trie.add("foo", 300L);
+
+        assertThat(names(trie.suggest("fo", 10)), contains("foo", "Foo"));
+        assertThat(trie.suggest("fo", 10).get(0).getDocuments(), is(2));
+        assertThat(trie.size(), is(2));
+
+        trie.remove("Foo");
+        assertThat(names(trie.suggest("FO", 10)), contains("foo"));
+
+        trie.remove("foo");
+        trie.remove("foo");
+        assertThat(trie.suggest("fo", 10), is(empty()));
+        assertThat(trie.size(), is(0));
+    }
+
+    @Test
+    void testLoadedSpellingsMatchIncrementalOnes() {
+        final NameTrie trie = new NameTrie(10);
+        trie.load("Foo", 1, 100L);
+        trie.load("foo", 2, 300L);
+        trie.rank();
+
+        assertThat(names(trie.suggest("fo", 10)), contains("foo", "Foo"));
+        trie.remove("Foo");
+        assertThat(names(trie.suggest("fo", 10)), contains("foo"));
+    }
+
+    private static List<String> names(final List<NameTrie.Entry> entries) {
+        return entries.stream().map(NameTrie.Entry::getName).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,41 @@
+package io.jrb.labs.docasm.index;
+
+import io.jrb.labs.docasm.model.EntityType;
+import io.jrb.labs.docasm.model.LookupValueType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Guards the tag index load, which reads every tag at startup, against scanning all lookup values and their
+ * dictionary; the repository queries are covered by QueryPlanTest.
+ */
+@SpringBootTest
+class TagIndexLoadPlanTest {
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    void testLoadAvoidsTableScan() {
+        StepVerifier.create(databaseClient.sql("EXPLAIN " + TagIndex.LOAD_SQL)
+                .bind("entityType", EntityType.DOCUMENT.getCode())
+                .bind("valueType", LookupValueType.TAG.getCode())
+                .map(row -> row.get(0, String.class))
+                .all()
+                .collectList())
+                .expectNextMatches(plan -> {
+                    assertThat(String.join("\n", plan), not(containsString("tableScan")));
+                    return true;
+                })
+                .expectComplete()
+                .verify();
+    }
+
+}
@@ -0,0 +1,139 @@
+package io.jrb.labs.docasm.index;
+
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.service.DocumentMutation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+class TagIndexTest {
+
+    private final TagIndex tagIndex = new TagIndex(mock(DatabaseClient.class), new SimpleMeterRegistry());
+
+    @Test
+    void testMatchAllRequiresEveryTag() {
+        created(1, "a", "b");
+        created(2, "a");
+        created(3, "b", "c");
+
+        assertThat(ids(TagMatch.ALL, "a", "b"), contains(1));
+        assertThat(ids(TagMatch.ALL, "b"), contains(1, 3));
+        assertThat(ids(TagMatch.ALL, "a", "missing"), is(empty()));
+    }
+
+    @Test
+    void testMatchAnyAcceptsAnyTag() {
+        created(1, "a", "b");
+        created(2, "a");
+        created(3, "b", "c");
+
+        assertThat(ids(TagMatch.ANY, "a", "c"), contains(1, 2, 3));
+        assertThat(ids(TagMatch.ANY, "c", "missing"), contains(3));
+        assertThat(ids(TagMatch.ANY, "missing"), is(empty()));
+        assertThat(ids(TagMatch.ANY), is(empty()));
+    }
+
+    @Test
+    void testUpdateRemovesOnlyThePreviousTags() {
+        created(1, "a", "b");
+        tagIndex.onMutation(updated(1, 1, List.of("a", "b"), "b", "c"));
+
+        assertThat(ids(TagMatch.ANY, "a"), is(empty()));
+        assertThat(ids(TagMatch.ALL, "b", "c"), contains(1));
+        assertThat(tagIndex.counts(), is(Map.of("b", 1L, "c", 1L)));
+    }
+
+    @Test
+    void testUpdateWithUnknownPreviousTagsRemovesEveryTag() {
+        created(1, "a", "b");
+        tagIndex.onMutation(updated(1, 1, null, "c"));
+
+        assertThat(tagIndex.counts(), is(Map.of("c", 1L)));
+    }
+
+    @Test
+    void testOlderUpdateArrivingLateIsIgnored() {
+        created(1, "a");
+        tagIndex.onMutation(updated(1, 2, List.of("b"), "c"));
+        tagIndex.onMutation(updated(1, 1, List.of("a"), "b"));
+
+        assertThat(tagIndex.counts(), is(Map.of("c", 1L)));
+    }
+
+    @Test
+    void testUpdateAfterAMissedVersionRemovesEveryTag() {
+        created(1, "a");
+        // version 1 (a -> b) has not arrived yet, so the previous tags of version 2 do not describe the postings
+        tagIndex.onMutation(updated(1, 2, List.of("b"), "c"));
+
+        assertThat(tagIndex.counts(), is(Map.of("c", 1L)));
+    }
+
+    @Test
+    void testUpdateWithoutTagsDoesNotHideAnOlderTagChange() {
+        created(1, "a");
+        tagIndex.onMutation(updated(1, 2, null, (String[]) null));
+        tagIndex.onMutation(updated(1, 1, List.of("a"), "b"));
+
+        assertThat(tagIndex.counts(), is(Map.of("b", 1L)));
+    }
+
+    @Test
+    void testUpdateArrivingAfterDeletionIsIgnored() {
+        created(1, "a");
+        tagIndex.onMutation(DocumentMutation.deleted(document(1, 1), List.of("b")));
+        tagIndex.onMutation(updated(1, 1, List.of("a"), "b"));
+
+        assertThat(tagIndex.counts(), is(Map.of()));
+        assertThat(ids(TagMatch.ANY, "a", "b"), is(empty()));
+    }
+
+    private void created(final long documentId, final String... tags) {
+        tagIndex.onMutation(DocumentMutation.builder()
+                .type(DocumentMutation.Type.CREATED)
+                .documentId(documentId)
+                .guid(UUID.randomUUID())
+                .document(document(documentId, 0))
+                .tags(List.of(tags))
+                .build());
+    }
+
+    private List<Integer> ids(final TagMatch match, final String... tags) {
+        final List<Integer> ids = new ArrayList<>();
+        tagIndex.match(List.of(tags), match).forEach((int id) -> ids.add(id));
+        return ids;
+    }
+
+    private static Document document(final long documentId, final long version) {
+        return Document.builder().id(documentId).version(version).build();
+    }
+
+    private static DocumentMutation updated(
+            final long documentId,
+            final long version,
+            final List<String> previousTags,
+            final String... tags
+    ) {
+        return DocumentMutation.builder()
+                .type(DocumentMutation.Type.UPDATED)
+                .documentId(documentId)
+                .guid(UUID.randomUUID())
+                .document(document(documentId, version))
+                .previous(document(documentId, version - 1))
+                .previousTags(previousTags)
+                .tags((tags != null) ? List.of(tags) : null)
+                .build();
+    }
+
+}
@@ -0,0 +1,100 @@
+package io.jrb.labs.docasm.index;
+
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.service.DocumentMutation;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+
+class TypeIndexTest {
+
+    private static final DocumentType TYPE = DocumentType.SONG_SET_LIST;
+
+    private final TypeIndex typeIndex = new TypeIndex(mock(DatabaseClient.class), new SimpleMeterRegistry());
+
+    @Test
+    void testCountsFollowCreationsAndDeletions() {
+        typeIndex.onMutation(created(1));
+        typeIndex.onMutation(created(2));
+        typeIndex.onMutation(created(3));
+        typeIndex.onMutation(deleted(2, 0));
+
+        assertThat(typeIndex.counts(), is(Map.of(TYPE, 2L)));
+        assertThat(typeIndex.counts(RoaringBitmap.bitmapOf(1, 2)), is(Map.of(TYPE, 1L)));
+    }
+
+    @Test
+    void testUpdateKeepsTheDocumentCountedOnce() {
+        typeIndex.onMutation(created(1));
+        typeIndex.onMutation(updated(1, 1));
+        typeIndex.onMutation(updated(1, 3));
+        typeIndex.onMutation(updated(1, 2));
+
+        assertThat(typeIndex.counts(), is(Map.of(TYPE, 1L)));
+    }
+
+    @Test
+    void testUpdateArrivingAfterDeletionIsIgnored() {
+        typeIndex.onMutation(created(1));
+        typeIndex.onMutation(deleted(1, 1));
+        typeIndex.onMutation(updated(1, 1));
+
+        assertThat(typeIndex.counts(), is(Map.of(TYPE, 0L)));
+    }
+
+    @Test
+    void testCreationArrivingAfterDeletionIsIgnored() {
+        typeIndex.onMutation(deleted(1, 0));
+        typeIndex.onMutation(created(1));
+
+        assertThat(typeIndex.counts(), is(Map.of(TYPE, 0L)));
+    }
+
+    @Test
+    void testRepeatedDeletionDoesNotCountTwice() {
+        typeIndex.onMutation(created(1));
+        typeIndex.onMutation(created(2));
+        typeIndex.onMutation(deleted(1, 0));
+        typeIndex.onMutation(deleted(1, 0));
+
+        assertThat(typeIndex.counts(), is(Map.of(TYPE, 1L)));
+    }
+
+    private static DocumentMutation created(final long documentId) {
+        return DocumentMutation.builder()
+                .type(DocumentMutation.Type.CREATED)
+                .documentId(documentId)
+                .guid(UUID.randomUUID())
+                .document(document(documentId, 0))
+                .build();
+    }
+
+    private static DocumentMutation deleted(final long documentId, final long version) {
+        return DocumentMutation.deleted(document(documentId, version), List.of());
+    }
+
+    private static Document document(final long documentId, final long version) {
+        return Document.builder().id(documentId).type(TYPE).version(version).build();
+    }
+
+    private static DocumentMutation updated(final long documentId, final long version) {
+        return DocumentMutation.builder()
+                .type(DocumentMutation.Type.UPDATED)
+                .documentId(documentId)
+                .guid(UUID.randomUUID())
+                .document(document(documentId, version))
+                .previous(document(documentId, version - 1))
+                .build();
+    }
+
+}
@@ -0,0 +1,75 @@
+package io.jrb.labs.docasm.metrics;
+
+import io.jrb.labs.docasm.config.DocasmProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+
+class QueriesEndpointTest {
+
+    private final DocasmProperties docasmProperties = new DocasmProperties();
+    private final QueryMetrics queryMetrics;
+    private final QueriesEndpoint queriesEndpoint;
+
+    QueriesEndpointTest() {
+        docasmProperties.getQueries().setTopStatements(2);
+        docasmProperties.getQueries().setMaxTrackedStatements(3);
+        docasmProperties.getQueries().setSlowThreshold(Duration.ofDays(1));
+        queryMetrics = new QueryMetrics(new SimpleMeterRegistry(), docasmProperties);
+        queriesEndpoint = new QueriesEndpoint(queryMetrics, docasmProperties);
+    }
+
+    @Test
+    void testStatementsAreListedByMaximumLatency() {
+        record("SELECT 1", "first", 5);
+        record("SELECT 2", "second", 30);
+        record("SELECT 3", "third", 10);
+        record("SELECT 1", "fourth", 20);
+
+        assertThat(sqlOf(queriesEndpoint.slowestStatements(3)), contains("SELECT 2", "SELECT 1", "SELECT 3"));
+
+        final QueryStatistics statistics = queriesEndpoint.slowestStatements(3).get(1);
+        assertThat(statistics.getCount(), is(2L));
+        assertThat(statistics.getMaxMillis(), is(20.0));
+        assertThat(statistics.getCallers(), containsInAnyOrder("first", "fourth"));
+    }
+
+    @Test
+    void testLimitDefaultsToTheConfiguredTopStatements() {
+        record("SELECT 1", "first", 5);
+        record("SELECT 2", "second", 30);
+        record("SELECT 3", "third", 10);
+
+        assertThat(sqlOf(queriesEndpoint.slowestStatements(null)), contains("SELECT 2", "SELECT 3"));
+    }
+
+    @Test
+    void testStatementsBeyondTheTrackedLimitAreNotListed() {
+        record("SELECT 1", "first", 5);
+        record("SELECT 2", "second", 30);
+        record("SELECT 3", "third", 10);
+        record("SELECT 4", "fourth", 40);
+
+        assertThat(sqlOf(queriesEndpoint.slowestStatements(10)), contains("SELECT 2", "SELECT 3", "SELECT 1"));
+    }
+
+    private void record(final String sql, final String caller, final long millis) {
+        final StatementExecution execution = queryMetrics.start(sql, Context.of(QueryMetrics.CALLER_KEY, caller),
+                queryMetrics.newBindings());
+        queryMetrics.record(execution, Duration.ofMillis(millis).toNanos());
+    }
+
+    private static List<String> sqlOf(final List<QueryStatistics> statistics) {
+        return statistics.stream().map(QueryStatistics::getSql).collect(Collectors.toList());
+    }
+
+}
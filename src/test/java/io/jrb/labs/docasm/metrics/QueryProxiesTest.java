@@ -0,0 +1,149 @@
+package io.jrb.labs.docasm.metrics;
+
+import io.jrb.labs.docasm.config.DocasmProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Row;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+import reactor.util.context.Context;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class QueryProxiesTest {
+
+    private static final String SQL = "SELECT do_id FROM t_document WHERE do_type = $1";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final QueryMetrics queryMetrics = new QueryMetrics(meterRegistry, new DocasmProperties());
+    private final Connection connection = mock(Connection.class);
+    private final Statement statement = mock(Statement.class);
+    private final Result result = mock(Result.class);
+
+    @BeforeEach
+    void setUp() {
+        doReturn(statement).when(connection).createStatement(anyString());
+        doReturn(Mono.empty()).when(connection).close();
+        doReturn(statement).when(statement).bind(anyInt(), any());
+        doReturn(Flux.just(result)).when(statement).execute();
+        doReturn(Flux.just(1L, 2L, 3L)).when(result).map(any());
+        doReturn(Mono.just(4)).when(result).getRowsUpdated();
+    }
+
+    @Test
+    void testBindReturnsTheProxy() {
+        final Statement instrumented = queryMetrics.instrument(connection).createStatement(SQL);
+
+        assertThat(instrumented.bind(0, "PDF"), is(sameInstance(instrumented)));
+    }
+
+    @Test
+    void testCallerIsTakenFromTheContext() {
+        final Flux<Row> rows = Flux.from(queryMetrics.instrument(connection).createStatement(SQL).execute())
+                .flatMap(r -> r.map((row, metadata) -> row))
+                .contextWrite(Context.of(QueryMetrics.CALLER_KEY, "DocumentRepository.findByType"));
+        StepVerifier.create(rows).expectNextCount(3).verifyComplete();
+
+        assertThat(statistics().getCallers(), contains("DocumentRepository.findByType"));
+        assertThat(timerCount("DocumentRepository.findByType"), is(1L));
+    }
+
+    @Test
+    void testConsumedRowsAreRecordedOnce() {
+        final Connection instrumented = queryMetrics.instrument(connection);
+        final Flux<Row> rows = Flux.from(instrumented.createStatement(SQL).execute())
+                .flatMap(r -> r.map((row, metadata) -> row));
+        StepVerifier.create(rows).expectNextCount(3).verifyComplete();
+        StepVerifier.create(instrumented.close()).verifyComplete();
+
+        assertThat(statistics().getCount(), is(1L));
+        assertThat(statistics().getTotalRows(), is(3L));
+        assertThat(statistics().getCallers(), contains(QueryMetrics.UNKNOWN_CALLER));
+    }
+
+    @Test
+    void testUpdatedRowsAreRecorded() {
+        final Mono<Integer> updated = Flux.from(queryMetrics.instrument(connection).createStatement(SQL).execute())
+                .flatMap(Result::getRowsUpdated)
+                .next();
+        StepVerifier.create(updated).expectNext(4).verifyComplete();
+
+        assertThat(statistics().getCount(), is(1L));
+        assertThat(statistics().getTotalRows(), is(4L));
+    }
+
+    @Test
+    void testCancelledRowsAreRecorded() {
+        final Flux<Row> rows = Flux.from(queryMetrics.instrument(connection).createStatement(SQL).execute())
+                .flatMap(r -> r.map((row, metadata) -> row));
+        StepVerifier.create(rows, 1).expectNextCount(1).thenCancel().verify();
+
+        assertThat(statistics().getCount(), is(1L));
+        assertThat(statistics().getTotalRows(), is(1L));
+    }
+
+    @Test
+    void testExecutionCancelledBeforeItsResultIsRecorded() {
+        doReturn(Flux.never()).when(statement).execute();
+
+        StepVerifier.create(queryMetrics.instrument(connection).createStatement(SQL).execute())
+                .thenCancel()
+                .verify();
+
+        assertThat(statistics().getCount(), is(1L));
+        assertThat(statistics().getTotalRows(), is(0L));
+    }
+
+    @Test
+    void testFailedExecutionIsRecorded() {
+        doReturn(Flux.error(new IllegalStateException("failed"))).when(statement).execute();
+
+        StepVerifier.create(queryMetrics.instrument(connection).createStatement(SQL).execute())
+                .verifyError(IllegalStateException.class);
+
+        assertThat(statistics().getCount(), is(1L));
+    }
+
+    @Test
+    void testUnreadResultIsRecordedWhenTheConnectionCloses() {
+        final Connection instrumented = queryMetrics.instrument(connection);
+        StepVerifier.create(instrumented.createStatement(SQL).execute()).expectNextCount(1).verifyComplete();
+        assertThat(queryMetrics.slowestStatements(10), is(empty()));
+
+        StepVerifier.create(instrumented.close()).verifyComplete();
+
+        assertThat(statistics().getCount(), is(1L));
+        assertThat(statistics().getTotalRows(), is(0L));
+    }
+
+    private QueryStatistics statistics() {
+        final List<QueryStatistics> statements = queryMetrics.slowestStatements(10);
+        assertThat(statements.size(), is(1));
+        assertThat(statements.get(0).getSql(), is(SQL));
+        return statements.get(0);
+    }
+
+    private long timerCount(final String caller) {
+        final Timer timer = meterRegistry.find("r2dbc.query").tag("caller", caller).timer();
+        return timer != null ? timer.count() : 0L;
+    }
+
+}
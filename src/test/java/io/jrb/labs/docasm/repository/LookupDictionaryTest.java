@@ -0,0 +1,183 @@
+package io.jrb.labs.docasm.repository;
+
+import io.jrb.labs.docasm.model.EntityType;
+import io.jrb.labs.docasm.model.LookupValue;
+import io.jrb.labs.docasm.model.LookupValueType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+@SpringBootTest
+class LookupDictionaryTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private LookupDictionary lookupDictionary;
+
+    @Autowired
+    private LookupValueRepository lookupValueRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ReactiveTransactionManager transactionManager;
+
+    @Test
+    void testTransactionsAddingTheSameValueShareOneRow() {
+        final String value = "merge-" + UUID.randomUUID();
+        final TransactionalOperator operator = TransactionalOperator.create(transactionManager);
+        // the first transaction stays open so that the second one races it to the unique index
+        final Mono<Integer> first = operator.transactional(lookupDictionary.idsOf(List.of(value))
+                .delayElement(Duration.ofMillis(200)))
+                .map(ids -> ids.get(value));
+        final Mono<Integer> second = operator.transactional(lookupDictionary.idsOf(List.of(value)))
+                .map(ids -> ids.get(value));
+
+        StepVerifier.create(Mono.zip(first, second))
+                .assertNext(ids -> assertThat(ids.getT1(), is(ids.getT2())))
+                .expectComplete()
+                .verify(TIMEOUT);
+        assertThat(dictionaryRows(value), is(1L));
+    }
+
+    @Test
+    void testRolledBackValueIsNotCached() {
+        final String value = "rollback-" + UUID.randomUUID();
+        final String read = new String(value);
+        final TransactionalOperator operator = TransactionalOperator.create(transactionManager);
+        final AtomicInteger rolledBackId = new AtomicInteger();
+
+        StepVerifier.create(operator.transactional(lookupDictionary.idsOf(List.of(value))
+                .doOnNext(ids -> rolledBackId.set(ids.get(value)))
+                .then(Mono.error(new IllegalStateException("rolled back")))))
+                .expectError(IllegalStateException.class)
+                .verify(TIMEOUT);
+        assertThat(dictionaryRows(value), is(0L));
+        assertThat(lookupDictionary.canonical(rolledBackId.get(), read), is(sameInstance(read)));
+
+        final int id = lookupDictionary.idsOf(List.of(value)).block(TIMEOUT).get(value);
+        assertThat(dictionaryRows(value), is(1L));
+        assertThat(databaseClient.sql("SELECT ld_value FROM t_lookup_dictionary WHERE ld_id = :id")
+                .bind("id", id)
+                .map(row -> row.get(0, String.class))
+                .one()
+                .block(TIMEOUT), is(value));
+        assertThat(lookupDictionary.canonical(id, read), is(not(sameInstance(read))));
+    }
+
+    @Test
+    void testDerivedDeletesBindEnumCodes() {
+        final long entityId = ThreadLocalRandom.current().nextLong(1_000_000, 1_000_000_000);
+        final long otherEntityId = entityId + 1;
+        lookupValueRepository.insertAll(List.of(
+                tag(entityId, "x"),
+                tag(entityId, "y"),
+                tag(otherEntityId, "x"),
+                tag(otherEntityId + 1, "z")
+        )).blockLast(TIMEOUT);
+
+        assertThat(values(entityId), contains("x", "y"));
+        lookupValueRepository.deleteByEntityTypeAndEntityIdAndValueType(
+                EntityType.DOCUMENT, entityId, LookupValueType.TAG).block(TIMEOUT);
+        assertThat(values(entityId), is(empty()));
+        assertThat(values(otherEntityId), contains("x"));
+
+        lookupValueRepository.deleteByEntityTypeAndEntityId(EntityType.DOCUMENT, otherEntityId).block(TIMEOUT);
+        assertThat(values(otherEntityId), is(empty()));
+        assertThat(values(otherEntityId + 1), contains("z"));
+
+        assertThat(lookupValueRepository.deleteByEntityTypeAndEntityIdIn(
+                EntityType.DOCUMENT, List.of(otherEntityId + 1, otherEntityId + 2)).block(TIMEOUT), is(1));
+        assertThat(values(otherEntityId + 1), is(empty()));
+    }
+
+    @Test
+    void testInsertedValuesReadBackDecoded() {
+        final long entityId = ThreadLocalRandom.current().nextLong(1_000_000, 1_000_000_000);
+        final String value = "round-trip-" + UUID.randomUUID();
+        lookupValueRepository.insertAll(List.of(tag(entityId, value), tag(entityId, "x"))).blockLast(TIMEOUT);
+
+        final List<LookupValue> read = lookupValueRepository.findByEntityTypeAndEntityId(EntityType.DOCUMENT, entityId)
+                .collectList()
+                .block(TIMEOUT);
+
+        assertThat(read.stream().map(LookupValue::getValue).collect(Collectors.toList()), contains(value, "x"));
+        assertThat(read.stream().map(LookupValue::getEntityType).distinct().collect(Collectors.toList()),
+                contains(EntityType.DOCUMENT));
+        assertThat(read.stream().map(LookupValue::getValueType).distinct().collect(Collectors.toList()),
+                contains(LookupValueType.TAG));
+        lookupValueRepository.deleteByEntityTypeAndEntityId(EntityType.DOCUMENT, entityId).block(TIMEOUT);
+    }
+
+    @Test
+    void testRepositoryOnlyReadsAndWritesValuesThroughTheDictionary() {
+        // a generic save or find would map the transient value, failing on lv_value_id or reading values back null
+        assertThat(ReactiveCrudRepository.class.isAssignableFrom(LookupValueRepository.class), is(false));
+        final List<String> mappingMethods = Arrays.stream(LookupValueRepository.class.getMethods())
+                .filter(method -> mentionsLookupValue(method.getGenericReturnType())
+                        || Arrays.stream(method.getGenericParameterTypes()).anyMatch(this::mentionsLookupValue))
+                .filter(method -> method.getDeclaringClass() != LookupValueRepositoryCustom.class)
+                .map(Method::getName)
+                .collect(Collectors.toList());
+        assertThat(mappingMethods, is(empty()));
+    }
+
+    private long dictionaryRows(final String value) {
+        return databaseClient.sql("SELECT COUNT(*) FROM t_lookup_dictionary WHERE ld_value = :value")
+                .bind("value", value)
+                .map(row -> row.get(0, Number.class).longValue())
+                .one()
+                .block(TIMEOUT);
+    }
+
+    private List<String> values(final long entityId) {
+        return lookupValueRepository.findByEntityTypeAndEntityId(EntityType.DOCUMENT, entityId)
+                .map(LookupValue::getValue)
+                .collectList()
+                .block(TIMEOUT);
+    }
+
+    private boolean mentionsLookupValue(final Type type) {
+        if (type instanceof ParameterizedType) {
+            return Arrays.stream(((ParameterizedType) type).getActualTypeArguments())
+                    .anyMatch(this::mentionsLookupValue);
+        }
+        return type == LookupValue.class;
+    }
+
+    private static LookupValue tag(final long entityId, final String value) {
+        return LookupValue.builder()
+                .entityType(EntityType.DOCUMENT)
+                .entityId(entityId)
+                .valueType(LookupValueType.TAG)
+                .value(value)
+                .build();
+    }
+
+}
@@ -0,0 +1,74 @@
+package io.jrb.labs.docasm.repository;
+
+import io.jrb.labs.docasm.model.EntityType;
+import io.jrb.labs.docasm.model.LookupValueType;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+/**
+ * Migrates lookup values written before they were encoded, and reads them back the way the repository does.
+ */
+class LookupValueMigrationTest {
+
+    @Test
+    void testEncodingKeepsEveryValue() throws Exception {
+        final String url = "jdbc:h2:mem:migration-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+        migrate(url, "4");
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO t_lookup_value (lv_entity_type, lv_entity_id, lv_value_type, lv_value)"
+                    + " VALUES ('DOCUMENT', 1, 'TAG', 'rock'), ('DOCUMENT', 1, 'TAG', 'live'),"
+                    + " ('DOCUMENT', 2, 'TAG', 'rock')");
+        }
+
+        migrate(url, "latest");
+
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            assertThat(rows(statement, "SELECT ld_value FROM t_lookup_dictionary ORDER BY ld_id"),
+                    contains("live", "rock"));
+            assertThat(rows(statement, "SELECT lv_entity_type || ':' || lv_entity_id || ':' || lv_value_type"
+                    + " || ':' || ld_value FROM t_lookup_value JOIN t_lookup_dictionary ON ld_id = lv_value_id"
+                    + " ORDER BY lv_id"), contains(
+                    encoded(1, "rock"),
+                    encoded(1, "live"),
+                    encoded(2, "rock")
+            ));
+        }
+    }
+
+    private static String encoded(final long entityId, final String value) {
+        return EntityType.DOCUMENT.getCode() + ":" + entityId + ":" + LookupValueType.TAG.getCode() + ":" + value;
+    }
+
+    private static void migrate(final String url, final String target) {
+        Flyway.configure()
+                .dataSource(url, "sa", "")
+                .locations("classpath:db/migration")
+                .target(target)
+                .load()
+                .migrate();
+    }
+
+    private static List<String> rows(final Statement statement, final String sql) throws Exception {
+        final List<String> rows = new ArrayList<>();
+        try (ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                rows.add(resultSet.getString(1));
+            }
+        }
+        return rows;
+    }
+
+}
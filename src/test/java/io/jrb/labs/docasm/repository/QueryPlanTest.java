@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.repository;
+
+import io.jrb.labs.docasm.model.EntityType;
+import io.jrb.labs.docasm.model.LookupValueType;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+
+/**
+ * Guards the hot repository queries against falling back to table scans when the schema or a query changes. The
+ * statements are the ones the repositories run, with their parameters bound; derived queries, which have no SQL of
+ * their own, are spelled out as Spring Data generates them.
+ */
+@SpringBootTest
+class QueryPlanTest {
+
+    private static final UUID GUID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final int DOCUMENT = EntityType.DOCUMENT.getCode();
+    private static final int TAG = LookupValueType.TAG.getCode();
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                Arguments.of("document by guid",
+                        "SELECT * FROM t_document WHERE do_guid = :guid",
+                        Map.of("guid", GUID)),
+                Arguments.of("document page",
+                        DocumentRepositoryCustomImpl.FIND_PAGE_SQL,
+                        Map.of("afterId", 10L, "limit", 50)),
+                Arguments.of("document aggregate by guid",
+                        DocumentRepositoryCustomImpl.FIND_AGGREGATE_SQL,
+                        Map.of("guid", GUID, "entityType", DOCUMENT)),
+                Arguments.of("document keys by guids",
+                        DocumentRepositoryCustomImpl.findKeysSql(true, false),
+                        Map.of("guids", List.of(GUID, UUID.randomUUID()))),
+                Arguments.of("document keys by guids and type",
+                        DocumentRepositoryCustomImpl.findKeysSql(true, true),
+                        Map.of("guids", List.of(GUID, UUID.randomUUID()), "type", "SONG_SET_LIST")),
+                Arguments.of("section by guid",
+                        "SELECT * FROM t_document_section WHERE ds_guid = :guid",
+                        Map.of("guid", GUID)),
+                Arguments.of("sections by document",
+                        "SELECT * FROM t_document_section WHERE ds_do_id = :documentId ORDER BY ds_id ASC",
+                        Map.of("documentId", 1L)),
+                Arguments.of("sections by documents",
+                        "SELECT * FROM t_document_section WHERE ds_do_id IN (:documentIds) ORDER BY ds_id ASC",
+                        Map.of("documentIds", List.of(1L, 2L, 3L))),
+                Arguments.of("section update at position",
+                        DocumentSectionRepositoryCustomImpl.updateAtSql(true, true),
+                        Map.of("modifiedOn", LocalDateTime.now(), "name", "name", "type", "SONG",
+                                "documentId", 1L, "index", 1L)),
+                Arguments.of("section delete at position",
+                        DocumentSectionRepositoryCustomImpl.DELETE_AT_SQL,
+                        Map.of("documentId", 1L, "index", 1L)),
+                Arguments.of("lookup values by entity",
+                        LookupValueRepositoryCustomImpl.FIND_BY_ENTITY_SQL,
+                        Map.of("entityType", DOCUMENT, "entityId", 1L)),
+                Arguments.of("lookup values by entities",
+                        LookupValueRepositoryCustomImpl.FIND_BY_ENTITIES_SQL,
+                        Map.of("entityType", DOCUMENT, "entityIds", List.of(1L, 2L, 3L))),
+                Arguments.of("lookup value update at position",
+                        LookupValueRepositoryCustomImpl.UPDATE_VALUE_AT_SQL,
+                        Map.of("valueId", 1, "entityType", DOCUMENT, "entityId", 1L, "valueType", TAG, "index", 1L)),
+                Arguments.of("lookup value delete at position",
+                        LookupValueRepositoryCustomImpl.DELETE_VALUE_AT_SQL,
+                        Map.of("entityType", DOCUMENT, "entityId", 1L, "valueType", TAG, "index", 1L)),
+                Arguments.of("lookup dictionary by values",
+                        LookupDictionary.FIND_IDS_SQL,
+                        Map.of("values", List.of("rock", "live")))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void testHotQueryAvoidsTableScan(final String name, final String sql, final Map<String, Object> parameters) {
+        DatabaseClient.GenericExecuteSpec statement = databaseClient.sql("EXPLAIN " + sql);
+        for (final Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            statement = statement.bind(parameter.getKey(), parameter.getValue());
+        }
+        StepVerifier.create(statement
+                .map(row -> row.get(0, String.class))
+                .all()
+                .collectList())
+                .expectNextMatches(plan -> {
+                    assertThat(String.join("\n", plan), not(containsString("tableScan")));
+                    return true;
+                })
+                .expectComplete()
+                .verify();
+    }
+
+}
@@ -0,0 +1,189 @@
+package io.jrb.labs.docasm.rest;
+
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.resource.DocumentResource;
+import io.jrb.labs.docasm.service.DocumentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+@SpringBootTest
+class DocumentControllerTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private DocumentService documentService;
+
+    private WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToApplicationContext(applicationContext).build();
+    }
+
+    @Test
+    void testPatchWithMatchingIfMatchReturnsTheNewETag() {
+        final UUID guid = create();
+        final String eTag = eTag(guid, "details");
+
+        final String patchedETag = patch(guid, eTag)
+                .expectStatus().isOk()
+                .expectHeader().exists(HttpHeaders.ETAG)
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+
+        assertThat(patchedETag, is(not(eTag)));
+        assertThat(patchedETag, is(eTag(guid, "details")));
+    }
+
+    @Test
+    void testPatchWithStaleIfMatchFailsThePrecondition() {
+        final UUID guid = create();
+        final String eTag = eTag(guid, "details");
+        patch(guid, eTag).expectStatus().isOk();
+
+        patch(guid, eTag).expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void testWeakOrInvalidIfMatchFailsThePrecondition() {
+        final UUID guid = create();
+        final String eTag = eTag(guid, "details");
+
+        patch(guid, "W/" + eTag).expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        patch(guid, "not-a-tag").expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        patch(guid, "\"stale-details\"").expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        webTestClient.delete()
+                .uri("/api/documents/{guid}", guid)
+                .header(HttpHeaders.IF_MATCH, "W/" + eTag)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @Test
+    void testDeleteWithStaleIfMatchFailsThePrecondition() {
+        final UUID guid = create();
+        final String eTag = eTag(guid, "details");
+        patch(guid, eTag).expectStatus().isOk();
+
+        webTestClient.delete()
+                .uri("/api/documents/{guid}", guid)
+                .header(HttpHeaders.IF_MATCH, eTag)
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.PRECONDITION_FAILED);
+        webTestClient.delete()
+                .uri("/api/documents/{guid}", guid)
+                .header(HttpHeaders.IF_MATCH, eTag(guid, "details"))
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void testGetWithMatchingIfNoneMatchIsNotModified() {
+        final UUID guid = create();
+        final String eTag = eTag(guid, "details");
+
+        webTestClient.get()
+                .uri("/api/documents/{guid}", guid)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals(HttpHeaders.ETAG, eTag);
+    }
+
+    @Test
+    void testNotModifiedResponseHasNoBody() {
+        final UUID guid = create();
+        final String eTag = eTag(guid, "summary");
+
+        webTestClient.get()
+                .uri("/api/documents/{guid}?projection=SUMMARY", guid)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void testETagChangesAfterAnUpdate() {
+        final UUID guid = create();
+        final String eTag = eTag(guid, "details");
+        patch(guid, null).expectStatus().isOk();
+
+        webTestClient.get()
+                .uri("/api/documents/{guid}", guid)
+                .header(HttpHeaders.IF_NONE_MATCH, eTag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value(HttpHeaders.ETAG, value -> assertThat(value, is(not(eTag))))
+                .expectBody().jsonPath("$.guid").isEqualTo(guid.toString());
+    }
+
+    @Test
+    void testEachProjectionHasItsOwnETag() {
+        final UUID guid = create();
+        final String summary = eTag(guid, "summary");
+        final String details = eTag(guid, "details");
+        final String deep = eTag(guid, "deep");
+
+        assertThat(summary, is(not(details)));
+        assertThat(details, is(not(deep)));
+        assertThat(deep, is(not(summary)));
+        webTestClient.get()
+                .uri("/api/documents/{guid}?projection=DEEP", guid)
+                .header(HttpHeaders.IF_NONE_MATCH, summary)
+                .exchange()
+                .expectStatus().isOk();
+    }
+
+    private UUID create() {
+        return documentService.createDocument(DocumentResource.builder()
+                .name("Conditional " + UUID.randomUUID())
+                .type(DocumentType.SONG_SET_LIST)
+                .build())
+                .block(TIMEOUT)
+                .getGuid();
+    }
+
+    private String eTag(final UUID guid, final String projection) {
+        return webTestClient.get()
+                .uri("/api/documents/{guid}?projection={projection}", guid, projection.toUpperCase())
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(String.class)
+                .getResponseHeaders()
+                .getETag();
+    }
+
+    private WebTestClient.ResponseSpec patch(final UUID guid, final String ifMatch) {
+        return webTestClient.patch()
+                .uri("/api/documents/{guid}", guid)
+                .headers(headers -> {
+                    if (ifMatch != null) {
+                        headers.setIfMatch(ifMatch);
+                    }
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"op\":\"replace\",\"path\":\"/name\",\"value\":\"Patched " + UUID.randomUUID() + "\"}]")
+                .exchange();
+    }
+
+}
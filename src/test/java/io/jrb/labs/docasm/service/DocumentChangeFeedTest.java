@@ -0,0 +1,108 @@
+package io.jrb.labs.docasm.service;
+
+import io.jrb.labs.docasm.config.DocasmProperties;
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.resource.DocumentChange;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.startsWith;
+
+class DocumentChangeFeedTest {
+
+    @Test
+    void testSlowSubscriberLosesOldestEvents() {
+        final DocumentChangeFeed feed = feed(DocasmProperties.ChangeOverflow.DROP_OLDEST);
+
+        StepVerifier.create(feed.changes(), 0)
+                .then(() -> {
+                    for (long id = 1; id <= 5; id++) {
+                        feed.onMutation(created(id));
+                    }
+                })
+                .thenRequest(2)
+                .assertNext(change -> assertThat(change.getName(), is("Doc4")))
+                .assertNext(change -> assertThat(change.getName(), is("Doc5")))
+                .thenCancel()
+                .verify();
+    }
+
+    @Test
+    void testSlowSubscriberIsDisconnected() {
+        final DocumentChangeFeed feed = feed(DocasmProperties.ChangeOverflow.DISCONNECT);
+
+        StepVerifier.create(feed.changes(), 0)
+                .then(() -> {
+                    for (long id = 1; id <= 3; id++) {
+                        feed.onMutation(created(id));
+                    }
+                })
+                .thenRequest(Long.MAX_VALUE)
+                .assertNext(change -> assertThat(change.getEvent(), is(DocumentChange.Event.CREATED)))
+                .expectNextCount(1)
+                .expectComplete()
+                .verify();
+    }
+
+    private static DocumentChangeFeed feed(final DocasmProperties.ChangeOverflow overflow) {
+        // delivering on the calling thread keeps the buffer contents deterministic
+        return feed(overflow, Schedulers.immediate());
+    }
+
+    private static DocumentChangeFeed feed(
+            final DocasmProperties.ChangeOverflow overflow,
+            final Scheduler scheduler
+    ) {
+        final DocasmProperties properties = new DocasmProperties();
+        properties.getChanges().setBufferSize(2);
+        properties.getChanges().setOverflow(overflow);
+        return new DocumentChangeFeed(properties, new SimpleMeterRegistry(), scheduler);
+    }
+
+    @Test
+    void testEventsAreDeliveredOffTheCommittingThread() {
+        final Scheduler scheduler = Schedulers.newSingle("feed-test");
+        try {
+            final DocumentChangeFeed feed = feed(DocasmProperties.ChangeOverflow.DROP_OLDEST, scheduler);
+            final String committingThread = Thread.currentThread().getName();
+
+            StepVerifier.create(feed.changes().map(change -> Thread.currentThread().getName()))
+                    .then(() -> feed.onMutation(created(1)))
+                    .assertNext(thread -> {
+                        assertThat(thread, is(not(committingThread)));
+                        assertThat(thread, startsWith("feed-test"));
+                    })
+                    .thenCancel()
+                    .verify(Duration.ofSeconds(10));
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    private static DocumentMutation created(final long id) {
+        final Document document = Document.builder()
+                .id(id)
+                .guid(UUID.randomUUID())
+                .name("Doc" + id)
+                .type(DocumentType.SONG_SET_LIST)
+                .version(0L)
+                .build();
+        return DocumentMutation.builder()
+                .type(DocumentMutation.Type.CREATED)
+                .documentId(id)
+                .guid(document.getGuid())
+                .document(document)
+                .build();
+    }
+
+}
@@ -0,0 +1,109 @@
+package io.jrb.labs.docasm.service;
+
+import io.jrb.labs.docasm.model.DocumentSectionType;
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.model.Projection;
+import io.jrb.labs.docasm.resource.DocumentDeleteRequest;
+import io.jrb.labs.docasm.resource.DocumentDeleteResult;
+import io.jrb.labs.docasm.resource.DocumentResource;
+import io.jrb.labs.docasm.resource.DocumentSectionResource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+/**
+ * Runs against a database of its own, since deleting by type removes every document of that type.
+ */
+@SpringBootTest(properties = {"docasm.database.name=deletetestdb", "spring.profiles.active=test"})
+class DocumentDeleteIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Test
+    void testDeleteByGuidsReportsCascadedSections() {
+        final DocumentResource first = create(2, "a", "b");
+        final DocumentResource second = create(3, "c");
+        final DocumentResource kept = create(1, "d");
+
+        final DocumentDeleteResult result = documentService.deleteDocuments(DocumentDeleteRequest.builder()
+                .guid(first.getGuid())
+                .guid(second.getGuid())
+                .guid(UUID.randomUUID())
+                .build())
+                .block(TIMEOUT);
+
+        assertThat(result.getDocuments(), is(2L));
+        assertThat(result.getSections(), is(5L));
+        assertThat(result.getTags(), is(3L));
+        assertThat(sections(first.getGuid()), is(0L));
+        assertThat(sections(second.getGuid()), is(0L));
+        assertThat(sections(kept.getGuid()), is(1L));
+        assertThat(documentService.findDocumentByGuid(kept.getGuid(), Projection.DEEP).block(TIMEOUT).getTags(),
+                contains("d"));
+    }
+
+    @Test
+    void testDeleteByTypeReportsEveryRowRemoved() {
+        create(2, "a");
+        create(1);
+        final long documents = count("SELECT COUNT(*) FROM t_document");
+        final long sections = count("SELECT COUNT(*) FROM t_document_section");
+        final long tags = count("SELECT COUNT(*) FROM t_lookup_value");
+
+        final DocumentDeleteResult result = documentService.deleteDocuments(DocumentDeleteRequest.builder()
+                .type(DocumentType.SONG_SET_LIST)
+                .build())
+                .block(TIMEOUT);
+
+        assertThat(result.getDocuments(), is(documents));
+        assertThat(result.getSections(), is(sections));
+        assertThat(result.getTags(), is(tags));
+        assertThat(count("SELECT COUNT(*) FROM t_document"), is(0L));
+        assertThat(count("SELECT COUNT(*) FROM t_document_section"), is(0L));
+        assertThat(count("SELECT COUNT(*) FROM t_lookup_value"), is(0L));
+    }
+
+    private DocumentResource create(final int sections, final String... tags) {
+        final DocumentResource.DocumentResourceBuilder builder = DocumentResource.builder()
+                .name("Delete " + UUID.randomUUID())
+                .type(DocumentType.SONG_SET_LIST);
+        for (final String tag : tags) {
+            builder.tag(tag);
+        }
+        for (int i = 1; i <= sections; i++) {
+            builder.section(DocumentSectionResource.builder().name("S" + i).type(DocumentSectionType.SONG).build());
+        }
+        return documentService.createDocument(builder.build()).block(TIMEOUT);
+    }
+
+    private long count(final String sql) {
+        return databaseClient.sql(sql)
+                .map(row -> row.get(0, Number.class).longValue())
+                .one()
+                .block(TIMEOUT);
+    }
+
+    private long sections(final UUID guid) {
+        return databaseClient.sql("SELECT COUNT(*) FROM t_document_section JOIN t_document ON ds_do_id = do_id"
+                + " WHERE do_guid = :guid")
+                .bind("guid", guid)
+                .map(row -> row.get(0, Number.class).longValue())
+                .one()
+                .block(TIMEOUT);
+    }
+
+}
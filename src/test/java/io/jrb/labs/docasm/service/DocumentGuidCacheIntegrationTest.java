@@ -0,0 +1,100 @@
+package io.jrb.labs.docasm.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonpatch.JsonPatch;
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.model.Projection;
+import io.jrb.labs.docasm.resource.DocumentResource;
+import io.jrb.labs.docasm.service.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Signal;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest
+class DocumentGuidCacheIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testReadAfterPatchSeesThePatch() throws Exception {
+        final DocumentResource created = create();
+        final DocumentResource before = find(created.getGuid());
+        final String name = "Renamed " + UUID.randomUUID();
+
+        documentService.updateDocument(created.getGuid(), patch("[{\"op\":\"replace\",\"path\":\"/name\","
+                + "\"value\":\"" + name + "\"}]"), null).block(TIMEOUT);
+
+        final DocumentResource after = find(created.getGuid());
+        assertThat(after.getName(), is(name));
+        assertThat(after.getVersion(), is(before.getVersion() + 1));
+        assertThat(documentService.findDocumentVersion(created.getGuid()).block(TIMEOUT), is(after.getVersion()));
+    }
+
+    @Test
+    void testReadAfterDeleteFindsNothing() {
+        final DocumentResource created = create();
+        find(created.getGuid());
+
+        documentService.deleteDocument(created.getGuid(), null).block(TIMEOUT);
+
+        final Signal<DocumentResource> read = documentService
+                .findDocumentByGuid(created.getGuid(), Projection.DETAILS)
+                .materialize()
+                .block(TIMEOUT);
+        assertThat(read.hasValue(), is(false));
+        final Signal<Long> version = documentService.findDocumentVersion(created.getGuid())
+                .materialize()
+                .block(TIMEOUT);
+        assertThat(version.hasValue(), is(false));
+    }
+
+    @Test
+    void testRolledBackPatchLeavesTheCachedDocumentCurrent() throws Exception {
+        final DocumentResource created = create();
+        final DocumentResource before = find(created.getGuid());
+
+        // the name is written before the missing tag fails the patch, so the rollback must undo a real change
+        StepVerifier.create(documentService.updateDocument(created.getGuid(), patch("["
+                        + "{\"op\":\"replace\",\"path\":\"/name\",\"value\":\"Rolled back " + UUID.randomUUID() + "\"},"
+                        + "{\"op\":\"replace\",\"path\":\"/tags/5\",\"value\":\"x\"}]"), null))
+                .expectError(InvalidRequestException.class)
+                .verify(TIMEOUT);
+
+        final DocumentResource after = find(created.getGuid());
+        assertThat(after.getName(), is(before.getName()));
+        assertThat(after.getVersion(), is(before.getVersion()));
+        assertThat(documentService.findDocumentVersion(created.getGuid()).block(TIMEOUT), is(before.getVersion()));
+    }
+
+    private DocumentResource create() {
+        return documentService.createDocument(DocumentResource.builder()
+                .name("Cached " + UUID.randomUUID())
+                .type(DocumentType.SONG_SET_LIST)
+                .tag("a")
+                .build())
+                .block(TIMEOUT);
+    }
+
+    private DocumentResource find(final UUID guid) {
+        return documentService.findDocumentByGuid(guid, Projection.DETAILS).block(TIMEOUT);
+    }
+
+    private JsonPatch patch(final String json) throws Exception {
+        return objectMapper.readValue(json, JsonPatch.class);
+    }
+
+}
@@ -0,0 +1,119 @@
+package io.jrb.labs.docasm.service;
+
+import io.jrb.labs.docasm.model.Projection;
+import io.jrb.labs.docasm.resource.DocumentImportResult;
+import io.jrb.labs.docasm.resource.DocumentResource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+/**
+ * Imports with chunks of two, so that a handful of lines spans several chunks and ends on a partial one.
+ */
+@SpringBootTest(properties = {
+        "docasm.bulk-import.chunk-size=2",
+        "docasm.bulk-import.concurrency=2",
+        "docasm.database.name=importtestdb",
+        "spring.profiles.active=test"
+})
+class DocumentImportIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Test
+    void testBlankLinesAreSkippedButCounted() {
+        final String first = name();
+        final String second = name();
+
+        final List<DocumentImportResult> results = importLines(document(first), "", "   ", document(second));
+
+        assertThat(lines(results), contains(1L, 4L));
+        assertThat(nameOf(results.get(0)), is(first));
+        assertThat(nameOf(results.get(1)), is(second));
+    }
+
+    @Test
+    void testMalformedLineIsReportedWithItsLineNumber() {
+        final List<DocumentImportResult> results = importLines(
+                document(name()),
+                "",
+                "{\"name\": \"broken\", ",
+                "{\"type\": \"SONG_SET_LIST\"}",
+                document(name())
+        );
+
+        assertThat(lines(results), contains(1L, 3L, 4L, 5L));
+        assertThat(results.get(0).getError(), is(nullValue()));
+        assertThat(results.get(1).getGuid(), is(nullValue()));
+        assertThat(results.get(1).getError(), is(notNullValue()));
+        assertThat(results.get(2).getError(), is("name is required"));
+        assertThat(results.get(3).getError(), is(nullValue()));
+    }
+
+    @Test
+    void testResultsFollowInputOrderAcrossChunks() {
+        final List<String> names = List.of(name(), name(), name(), name(), name());
+
+        final List<DocumentImportResult> results = importLines(names.stream()
+                .map(DocumentImportIntegrationTest::document)
+                .toArray(String[]::new));
+
+        assertThat(lines(results), contains(1L, 2L, 3L, 4L, 5L));
+        assertThat(results.stream().map(this::nameOf).collect(Collectors.toList()), is(names));
+    }
+
+    @Test
+    void testFailingDocumentOnlyFailsItsOwnLine() {
+        final String first = name();
+        final String last = name();
+        // longer than the name column, so the chunk fails in the database and is retried one document at a time
+        final String tooLong = "x".repeat(65);
+
+        final List<DocumentImportResult> results = importLines(document(first), document(tooLong), document(last));
+
+        assertThat(lines(results), contains(1L, 2L, 3L));
+        assertThat(nameOf(results.get(0)), is(first));
+        assertThat(results.get(1).getGuid(), is(nullValue()));
+        assertThat(results.get(1).getError(), is(notNullValue()));
+        assertThat(nameOf(results.get(2)), is(last));
+    }
+
+    private List<DocumentImportResult> importLines(final String... lines) {
+        return documentService.importDocuments(Flux.just(lines)).collectList().block(TIMEOUT);
+    }
+
+    private String nameOf(final DocumentImportResult result) {
+        assertThat(result.getError(), is(nullValue()));
+        final DocumentResource document = documentService.findDocumentByGuid(result.getGuid(), Projection.SUMMARY)
+                .block(TIMEOUT);
+        return document.getName();
+    }
+
+    private static List<Long> lines(final List<DocumentImportResult> results) {
+        return results.stream().map(DocumentImportResult::getLine).collect(Collectors.toList());
+    }
+
+    private static String document(final String name) {
+        return "{\"name\": \"" + name + "\", \"type\": \"SONG_SET_LIST\", \"tags\": [\"import\"]}";
+    }
+
+    private static String name() {
+        return "Import " + UUID.randomUUID();
+    }
+
+}
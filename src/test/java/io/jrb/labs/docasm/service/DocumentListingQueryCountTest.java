@@ -0,0 +1,79 @@
+package io.jrb.labs.docasm.service;
+
+import io.jrb.labs.docasm.model.DocumentSectionType;
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.model.Projection;
+import io.jrb.labs.docasm.resource.DocumentPage;
+import io.jrb.labs.docasm.resource.DocumentResource;
+import io.jrb.labs.docasm.resource.DocumentSectionResource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest
+class DocumentListingQueryCountTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 3; i++) {
+            documentService.createDocument(DocumentResource.builder()
+                    .name("Counted " + UUID.randomUUID())
+                    .type(DocumentType.SONG_SET_LIST)
+                    .tag("a")
+                    .tag("b")
+                    .section(DocumentSectionResource.builder().name("S1").type(DocumentSectionType.SONG).build())
+                    .section(DocumentSectionResource.builder().name("S2").type(DocumentSectionType.SONG).build())
+                    .build())
+                    .block(TIMEOUT);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 3, 20})
+    void testDeepPageTakesThreeStatementsWhateverItsSize(final int limit) throws Exception {
+        final long before = awaitStatements(0);
+
+        final DocumentPage page = documentService.listDocuments(null, limit, Projection.DEEP).block(TIMEOUT);
+
+        // the page, then its sections and its lookup values, each read once for the whole page
+        assertThat(page.getDocuments().size(), is(limit));
+        assertThat(awaitStatements(before + 3) - before, is(3L));
+    }
+
+    /**
+     * Waits for the statements to be counted, as a statement is recorded once its result has been consumed.
+     */
+    private long awaitStatements(final long expected) throws InterruptedException {
+        final long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        long statements = statements();
+        while (statements < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            statements = statements();
+        }
+        Thread.sleep(50);
+        return statements();
+    }
+
+    private long statements() {
+        return meterRegistry.find("r2dbc.query").timers().stream().mapToLong(Timer::count).sum();
+    }
+
+}
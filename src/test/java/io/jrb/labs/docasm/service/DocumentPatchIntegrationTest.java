@@ -0,0 +1,139 @@
+package io.jrb.labs.docasm.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.fge.jsonpatch.JsonPatch;
+import io.jrb.labs.docasm.model.DocumentSectionType;
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.model.Projection;
+import io.jrb.labs.docasm.resource.DocumentResource;
+import io.jrb.labs.docasm.resource.DocumentSectionResource;
+import io.jrb.labs.docasm.service.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+
+@SpringBootTest
+class DocumentPatchIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void testTargetedPatchMatchesPatchAppliedToDeepResource() throws Exception {
+        final UUID guid = create("a", "b", "c").getGuid();
+        final DocumentResource before = findDeep(guid);
+        final JsonPatch patch = patch("["
+                + "{\"op\":\"replace\",\"path\":\"/name\",\"value\":\"Patched " + guid + "\"},"
+                + "{\"op\":\"replace\",\"path\":\"/tags/1\",\"value\":\"x\"},"
+                + "{\"op\":\"remove\",\"path\":\"/tags/0\"},"
+                + "{\"op\":\"add\",\"path\":\"/tags/-\",\"value\":\"d\"},"
+                + "{\"op\":\"add\",\"path\":\"/tags/-\",\"value\":\"e\"},"
+                + "{\"op\":\"replace\",\"path\":\"/sections/1/name\",\"value\":\"S2b\"},"
+                + "{\"op\":\"remove\",\"path\":\"/sections/0\"},"
+                + "{\"op\":\"add\",\"path\":\"/sections/-\",\"value\":{\"name\":\"S4\",\"type\":\"SONG\"}}"
+                + "]");
+        final DocumentResource expected = objectMapper.treeToValue(
+                patch.apply(objectMapper.valueToTree(before)), DocumentResource.class);
+
+        documentService.updateDocument(guid, patch, null).block(TIMEOUT);
+
+        final DocumentResource after = findDeep(guid);
+        assertThat(after.getName(), is(expected.getName()));
+        assertThat(after.getType(), is(expected.getType()));
+        assertThat(after.getTags(), is(expected.getTags()));
+        assertThat(after.getTags(), contains("x", "c", "d", "e"));
+        assertThat(sectionNames(after), is(sectionNames(expected)));
+        assertThat(sectionNames(after), contains("S2b", "S3", "S4"));
+    }
+
+    @Test
+    void testTargetedAndInMemoryPathsProduceTheSameDocument() throws Exception {
+        final DocumentResource targeted = create("a", "b");
+        final DocumentResource inMemory = create("a", "b");
+        final String newName = "Renamed " + UUID.randomUUID();
+        final String replaceName = "{\"op\":\"replace\",\"path\":\"/name\",\"value\":\"" + newName + "\"}";
+
+        // a test operation cannot be compiled to statements, so this patch goes through the in-memory path
+        final DocumentResource targetedResult = documentService
+                .updateDocument(targeted.getGuid(), patch("[" + replaceName + "]"), null)
+                .block(TIMEOUT);
+        final DocumentResource inMemoryResult = documentService.updateDocument(inMemory.getGuid(), patch("["
+                + "{\"op\":\"test\",\"path\":\"/name\",\"value\":\"" + inMemory.getName() + "\"},"
+                + replaceName + "]"), null)
+                .block(TIMEOUT);
+
+        assertThat(targetedResult.getName(), is(inMemoryResult.getName()));
+        assertThat(targetedResult.getType(), is(inMemoryResult.getType()));
+        assertThat(targetedResult.getVersion(), is(inMemoryResult.getVersion()));
+        final DocumentResource targetedAfter = findDeep(targeted.getGuid());
+        final DocumentResource inMemoryAfter = findDeep(inMemory.getGuid());
+        assertThat(targetedAfter.getName(), is(newName));
+        assertThat(inMemoryAfter.getName(), is(newName));
+        assertThat(targetedAfter.getTags(), is(inMemoryAfter.getTags()));
+        assertThat(sectionNames(targetedAfter), is(sectionNames(inMemoryAfter)));
+    }
+
+    @Test
+    void testOutOfRangePositionRollsBackTheWholePatch() throws Exception {
+        final DocumentResource created = create("a", "b");
+        final JsonPatch patch = patch("[{\"op\":\"replace\",\"path\":\"/name\",\"value\":\"Changed\"},"
+                + "{\"op\":\"add\",\"path\":\"/tags/-\",\"value\":\"c\"},"
+                + "{\"op\":\"replace\",\"path\":\"/tags/5\",\"value\":\"x\"}]");
+
+        StepVerifier.create(documentService.updateDocument(created.getGuid(), patch, null))
+                .expectError(InvalidRequestException.class)
+                .verify(TIMEOUT);
+        StepVerifier.create(documentService.updateDocument(created.getGuid(),
+                patch("[{\"op\":\"remove\",\"path\":\"/sections/3\"}]"), null))
+                .expectError(InvalidRequestException.class)
+                .verify(TIMEOUT);
+
+        final DocumentResource after = findDeep(created.getGuid());
+        assertThat(after.getName(), is(created.getName()));
+        assertThat(after.getTags(), contains("a", "b"));
+        assertThat(sectionNames(after), contains("S1", "S2", "S3"));
+    }
+
+    private DocumentResource create(final String... tags) {
+        final DocumentResource.DocumentResourceBuilder builder = DocumentResource.builder()
+                .name("Patch " + UUID.randomUUID())
+                .type(DocumentType.SONG_SET_LIST);
+        for (final String tag : tags) {
+            builder.tag(tag);
+        }
+        for (int i = 1; i <= 3; i++) {
+            builder.section(DocumentSectionResource.builder().name("S" + i).type(DocumentSectionType.SONG).build());
+        }
+        return documentService.createDocument(builder.build()).block(TIMEOUT);
+    }
+
+    private DocumentResource findDeep(final UUID guid) {
+        return documentService.findDocumentByGuid(guid, Projection.DEEP).block(TIMEOUT);
+    }
+
+    private JsonPatch patch(final String json) throws Exception {
+        return objectMapper.readValue(json, JsonPatch.class);
+    }
+
+    private static List<String> sectionNames(final DocumentResource resource) {
+        return resource.getSections().stream()
+                .map(DocumentSectionResource::getName)
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,142 @@
+package io.jrb.labs.docasm.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jrb.labs.docasm.model.DocumentSectionType;
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.resource.DocumentSectionResource;
+import io.jrb.labs.docasm.service.DocumentPatchPlan.Step;
+import io.jrb.labs.docasm.service.DocumentPatchPlan.StepType;
+import io.jrb.labs.docasm.service.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DocumentPatchPlanTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void testCompilesDocumentColumns() {
+        final DocumentPatchPlan plan = compile("[{\"op\":\"replace\",\"path\":\"/name\",\"value\":\"Renamed\"},"
+                + "{\"op\":\"replace\",\"path\":\"/type\",\"value\":\"SONG_SET_LIST\"}]").orElseThrow();
+
+        assertThat(plan.getName(), is("Renamed"));
+        assertThat(plan.getType(), is(DocumentType.SONG_SET_LIST));
+        assertThat(plan.getSteps().isEmpty(), is(true));
+        assertThat(plan.changesTags(), is(false));
+        assertThat(plan.changesSections(), is(false));
+    }
+
+    @Test
+    void testFoldsConsecutiveAppendsIntoOneStep() {
+        final DocumentPatchPlan plan = compile("[{\"op\":\"add\",\"path\":\"/tags/-\",\"value\":\"a\"},"
+                + "{\"op\":\"add\",\"path\":\"/tags/-\",\"value\":\"b\"},"
+                + "{\"op\":\"remove\",\"path\":\"/tags/0\"},"
+                + "{\"op\":\"add\",\"path\":\"/tags/-\",\"value\":\"c\"},"
+                + "{\"op\":\"add\",\"path\":\"/sections/-\",\"value\":{\"name\":\"S1\",\"type\":\"SONG\"}},"
+                + "{\"op\":\"add\",\"path\":\"/sections/-\",\"value\":{\"name\":\"S2\",\"type\":\"SONG\"}}]")
+                .orElseThrow();
+
+        assertThat(types(plan), contains(StepType.ADD_TAGS, StepType.REMOVE_TAG, StepType.ADD_TAGS,
+                StepType.ADD_SECTIONS));
+        assertThat(plan.getSteps().get(0).getValues(), contains("a", "b"));
+        assertThat(plan.getSteps().get(1).getIndex(), is(0L));
+        assertThat(plan.getSteps().get(2).getValues(), contains("c"));
+        assertThat(plan.getSteps().get(3).getSections().stream()
+                .map(DocumentSectionResource::getName)
+                .collect(Collectors.toList()), contains("S1", "S2"));
+        assertThat(plan.changesTags(), is(true));
+        assertThat(plan.changesSections(), is(true));
+    }
+
+    @Test
+    void testCompilesPositionalOperations() {
+        final DocumentPatchPlan plan = compile("[{\"op\":\"replace\",\"path\":\"/tags/2\",\"value\":\"x\"},"
+                + "{\"op\":\"replace\",\"path\":\"/sections/1/name\",\"value\":\"Renamed\"},"
+                + "{\"op\":\"replace\",\"path\":\"/sections/0/type\",\"value\":\"SONG\"},"
+                + "{\"op\":\"replace\",\"path\":\"/sections/3\",\"value\":{\"name\":\"S\",\"type\":\"SONG\"}},"
+                + "{\"op\":\"remove\",\"path\":\"/sections/4\"}]").orElseThrow();
+
+        final List<Step> steps = plan.getSteps();
+        assertThat(types(plan), contains(StepType.REPLACE_TAG, StepType.UPDATE_SECTION, StepType.UPDATE_SECTION,
+                StepType.UPDATE_SECTION, StepType.REMOVE_SECTION));
+        assertThat(steps.get(0).getIndex(), is(2L));
+        assertThat(steps.get(0).getValues(), contains("x"));
+        assertThat(steps.get(1).getIndex(), is(1L));
+        assertThat(steps.get(1).getSectionName(), is("Renamed"));
+        assertThat(steps.get(1).getSectionType(), is(nullValue()));
+        assertThat(steps.get(2).getSectionName(), is(nullValue()));
+        assertThat(steps.get(2).getSectionType(), is(DocumentSectionType.SONG));
+        assertThat(steps.get(3).getIndex(), is(3L));
+        assertThat(steps.get(3).getSectionName(), is("S"));
+        assertThat(steps.get(4).getIndex(), is(4L));
+    }
+
+    @Test
+    void testCompilesWholeCollectionReplacement() {
+        final DocumentPatchPlan plan = compile("[{\"op\":\"replace\",\"path\":\"/tags\",\"value\":[\"a\",\"b\"]},"
+                + "{\"op\":\"remove\",\"path\":\"/sections\"}]").orElseThrow();
+
+        assertThat(types(plan), contains(StepType.REPLACE_TAGS, StepType.REPLACE_SECTIONS));
+        assertThat(plan.getSteps().get(0).getValues(), contains("a", "b"));
+        assertThat(plan.getSteps().get(1).getSections().isEmpty(), is(true));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "[{\"op\":\"test\",\"path\":\"/name\",\"value\":\"Song1\"}]",
+            "[{\"op\":\"move\",\"from\":\"/name\",\"path\":\"/name\"}]",
+            "[{\"op\":\"add\",\"path\":\"/createdBy\",\"value\":\"someone\"}]"
+    })
+    void testLeavesUnsupportedDocumentFieldOperationsToInMemoryPatching(final String patch) {
+        assertThat(compile(patch).isPresent(), is(false));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "[{\"op\":\"move\",\"from\":\"/tags/0\",\"path\":\"/tags/1\"}]",
+            "[{\"op\":\"copy\",\"from\":\"/sections/0\",\"path\":\"/sections/-\"}]",
+            "[{\"op\":\"replace\",\"path\":\"/name\",\"value\":\"x\"},"
+                    + "{\"op\":\"test\",\"path\":\"/tags/0\",\"value\":\"a\"}]",
+            "[{\"op\":\"replace\",\"path\":\"/tags/x\",\"value\":\"a\"}]",
+            "[{\"op\":\"remove\",\"path\":\"/tags/-1\"}]",
+            "[{\"op\":\"replace\",\"path\":\"/tags/-\",\"value\":\"a\"}]",
+            "[{\"op\":\"replace\",\"path\":\"/sections/0/guid\",\"value\":\"a\"}]",
+            "[{\"op\":\"add\",\"path\":\"/tags/-\",\"value\":\"\"}]",
+            "[{\"op\":\"add\",\"path\":\"/tags/-\",\"value\":7}]",
+            "[{\"op\":\"add\",\"path\":\"/sections/-\",\"value\":{\"name\":\"S\"}}]",
+            "[{\"op\":\"replace\",\"path\":\"/tags\",\"value\":\"a\"}]",
+            "[{\"op\":\"remove\",\"path\":\"/name\"}]",
+            "[{\"op\":\"remove\",\"path\":\"/type\"}]",
+            "[{\"op\":\"replace\",\"path\":\"/type\",\"value\":\"NOT_A_TYPE\"}]"
+    })
+    void testRejectsInvalidPatches(final String patch) {
+        assertThrows(InvalidRequestException.class, () -> compile(patch));
+    }
+
+    private Optional<DocumentPatchPlan> compile(final String patch) {
+        try {
+            final JsonNode operations = objectMapper.readTree(patch);
+            return DocumentPatchPlan.compile(operations, objectMapper);
+        } catch (final IOException ex) {
+            throw new IllegalArgumentException(ex);
+        }
+    }
+
+    private static List<StepType> types(final DocumentPatchPlan plan) {
+        return plan.getSteps().stream().map(Step::getType).collect(Collectors.toList());
+    }
+
+}
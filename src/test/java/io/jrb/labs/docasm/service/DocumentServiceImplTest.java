@@ -0,0 +1,90 @@
+package io.jrb.labs.docasm.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jrb.labs.docasm.config.DocasmProperties;
+import io.jrb.labs.docasm.index.DocumentSearchIndex;
+import io.jrb.labs.docasm.index.NameSuggester;
+import io.jrb.labs.docasm.index.TagIndex;
+import io.jrb.labs.docasm.index.TypeIndex;
+import io.jrb.labs.docasm.model.Document;
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.repository.DocumentRepository;
+import io.jrb.labs.docasm.repository.DocumentSectionRepository;
+import io.jrb.labs.docasm.repository.LookupValueRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.ReactiveTransactionManager;
+import reactor.core.publisher.Flux;
+import reactor.test.StepVerifier;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DocumentServiceImplTest {
+
+    private static final int FETCH_SIZE = 4;
+    private static final int PAGES = 100;
+
+    private final DocumentRepository documentRepository = mock(DocumentRepository.class);
+
+    @Test
+    void testListAllDocumentsFetchesPagesOnDemand() {
+        final AtomicInteger fetchedPages = new AtomicInteger();
+        when(documentRepository.findPage(anyLong(), eq(FETCH_SIZE))).thenAnswer(invocation -> {
+            final long afterId = invocation.getArgument(0);
+            return Flux.defer(() -> {
+                fetchedPages.incrementAndGet();
+                return (afterId >= (long) PAGES * FETCH_SIZE)
+                        ? Flux.<Document>empty()
+                        : Flux.range(1, FETCH_SIZE).map(offset -> document(afterId + offset));
+            });
+        });
+
+        StepVerifier.create(service().listAllDocuments(), 0)
+                .thenRequest(FETCH_SIZE)
+                .expectNextCount(FETCH_SIZE)
+                .then(() -> assertThat(fetchedPages.get(), lessThanOrEqualTo(3)))
+                .thenRequest(FETCH_SIZE)
+                .expectNextCount(FETCH_SIZE)
+                .then(() -> assertThat(fetchedPages.get(), lessThanOrEqualTo(4)))
+                .thenCancel()
+                .verify();
+    }
+
+    private DocumentServiceImpl service() {
+        final DocasmProperties properties = new DocasmProperties();
+        properties.getListing().setFetchSize(FETCH_SIZE);
+        return new DocumentServiceImpl(
+                documentRepository,
+                mock(DocumentSectionRepository.class),
+                mock(LookupValueRepository.class),
+                mock(DocumentGuidCache.class),
+                mock(DocumentMutationPublisher.class),
+                mock(DocumentChangeFeed.class),
+                mock(TagIndex.class),
+                mock(TypeIndex.class),
+                mock(DocumentSearchIndex.class),
+                mock(NameSuggester.class),
+                new ObjectMapper(),
+                mock(ReactiveTransactionManager.class),
+                properties
+        );
+    }
+
+    private static Document document(final long id) {
+        return Document.builder()
+                .id(id)
+                .guid(UUID.randomUUID())
+                .name("Doc" + id)
+                .type(DocumentType.SONG_SET_LIST)
+                .version(0L)
+                .build();
+    }
+
+}
@@ -0,0 +1,138 @@
+package io.jrb.labs.docasm.service;
+
+import io.jrb.labs.docasm.index.TagMatch;
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.model.Projection;
+import io.jrb.labs.docasm.resource.DocumentPage;
+import io.jrb.labs.docasm.resource.DocumentResource;
+import io.jrb.labs.docasm.service.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+@SpringBootTest
+class DocumentTagListingIntegrationTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private DocumentService documentService;
+
+    @Test
+    void testCursorPagesThroughEveryMatchInOrder() {
+        final String tag = "paging-" + UUID.randomUUID();
+        final String other = "paging-" + UUID.randomUUID();
+        final List<UUID> expected = List.of(
+                create(tag).getGuid(),
+                create(tag, other).getGuid(),
+                create(other).getGuid(),
+                create(tag).getGuid()
+        );
+
+        final List<UUID> listed = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            final DocumentPage page = documentService
+                    .listDocumentsByTags(List.of(tag), TagMatch.ALL, cursor, 1, Projection.SUMMARY)
+                    .block(TIMEOUT);
+            listed.addAll(guids(page));
+            cursor = page.getNext();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(listed, contains(expected.get(0), expected.get(1), expected.get(3)));
+        assertThat(pages, is(3));
+    }
+
+    @Test
+    void testCursorCombinesWithAnyMatch() {
+        final String tag = "paging-" + UUID.randomUUID();
+        final String other = "paging-" + UUID.randomUUID();
+        final UUID first = create(tag).getGuid();
+        final UUID second = create(other).getGuid();
+        final UUID third = create(tag, other).getGuid();
+
+        final DocumentPage firstPage = documentService
+                .listDocumentsByTags(List.of(tag, other), TagMatch.ANY, null, 2, Projection.SUMMARY)
+                .block(TIMEOUT);
+        final DocumentPage lastPage = documentService
+                .listDocumentsByTags(List.of(tag, other), TagMatch.ANY, firstPage.getNext(), 2, Projection.SUMMARY)
+                .block(TIMEOUT);
+
+        assertThat(guids(firstPage), contains(first, second));
+        assertThat(guids(lastPage), contains(third));
+        assertThat(lastPage.getNext(), is(nullValue()));
+    }
+
+    @Test
+    void testPageSkipsDocumentsGoneFromTheDatabase() {
+        final String tag = "paging-" + UUID.randomUUID();
+        final UUID first = create(tag).getGuid();
+        final UUID gone = create(tag).getGuid();
+        final UUID third = create(tag).getGuid();
+        final UUID fourth = create(tag).getGuid();
+        // removed behind the service's back, so the tag index still holds its identifier
+        databaseClient.sql("DELETE FROM t_lookup_value WHERE lv_entity_id = "
+                + "(SELECT do_id FROM t_document WHERE do_guid = :guid)")
+                .bind("guid", gone)
+                .then()
+                .then(databaseClient.sql("DELETE FROM t_document WHERE do_guid = :guid").bind("guid", gone).then())
+                .block(TIMEOUT);
+
+        final DocumentPage firstPage = documentService
+                .listDocumentsByTags(List.of(tag), TagMatch.ALL, null, 2, Projection.SUMMARY)
+                .block(TIMEOUT);
+        final DocumentPage lastPage = documentService
+                .listDocumentsByTags(List.of(tag), TagMatch.ALL, firstPage.getNext(), 2, Projection.SUMMARY)
+                .block(TIMEOUT);
+
+        assertThat(guids(firstPage), contains(first, third));
+        assertThat(guids(lastPage), contains(fourth));
+        assertThat(lastPage.getNext(), is(nullValue()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {-1L, Integer.MAX_VALUE, Long.MAX_VALUE})
+    void testOutOfRangeCursorIsRejected(final long afterId) {
+        StepVerifier.create(documentService.listDocumentsByTags(
+                List.of("A"), TagMatch.ALL, DocumentCursor.encode(afterId), 2, Projection.SUMMARY))
+                .expectError(InvalidRequestException.class)
+                .verify(TIMEOUT);
+    }
+
+    private DocumentResource create(final String... tags) {
+        final DocumentResource.DocumentResourceBuilder builder = DocumentResource.builder()
+                .name("Tagged " + UUID.randomUUID())
+                .type(DocumentType.SONG_SET_LIST);
+        for (final String tag : tags) {
+            builder.tag(tag);
+        }
+        return documentService.createDocument(builder.build()).block(TIMEOUT);
+    }
+
+    private static List<UUID> guids(final DocumentPage page) {
+        return page.getDocuments().stream()
+                .map(DocumentResource::getGuid)
+                .collect(Collectors.toList());
+    }
+
+}
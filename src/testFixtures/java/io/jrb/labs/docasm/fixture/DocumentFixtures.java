@@ -0,0 +1,55 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2021 Jon Brule <brulejr@gmail.com>
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package io.jrb.labs.docasm.fixture;
+
+import io.jrb.labs.docasm.model.DocumentSectionType;
+import io.jrb.labs.docasm.model.DocumentType;
+import io.jrb.labs.docasm.resource.DocumentResource;
+import io.jrb.labs.docasm.resource.DocumentSectionResource;
+
+/**
+ * Builds the document fixtures shared by the benchmarks and the load test, so that both measure the same shape.
+ */
+public final class DocumentFixtures {
+
+    private DocumentFixtures() {
+    }
+
+    public static DocumentResource document(final String name, final int sectionCount, final int tagCount) {
+        final DocumentResource.DocumentResourceBuilder builder = DocumentResource.builder()
+                .name(name)
+                .type(DocumentType.SONG_SET_LIST);
+        for (int i = 0; i < tagCount; i++) {
+            builder.tag("tag-" + i);
+        }
+        for (int i = 0; i < sectionCount; i++) {
+            builder.section(DocumentSectionResource.builder()
+                    .name("Song " + i)
+                    .type(DocumentSectionType.SONG)
+                    .build());
+        }
+        return builder.build();
+    }
+
+}